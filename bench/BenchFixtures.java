@@ -0,0 +1,191 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Builds the game objects exercised by the JMH benchmarks. JMH refuses benchmark
+ * classes in the default package, and a named package cannot see the game
+ * classes, so the benchmarks fetch these fixtures reflectively once in their
+ * setup and then only call through the returned functional interfaces.
+ */
+public final class BenchFixtures {
+    /** Edge length of the generated "open" and "maze" maps. */
+    public static final int LARGE_MAP_SIZE = 513;
+    /** Edge length of the disk-backed "huge" map. */
+    public static final int HUGE_MAP_SIZE = 10_001;
+
+    private BenchFixtures() {}
+
+    public static Supplier<BufferedImage> castRays(String mapKind, int width, int height,
+                                                   int fov, int rayResolution, int threads) throws IOException {
+        Map map = map(mapKind);
+        double[] spawn = spawn(mapKind, map);
+        Raycaster raycaster = new Raycaster(map, spawn[0], spawn[1], 0, width, height, fov, rayResolution);
+        raycaster.setRenderThreads(threads);
+        double[] angle = {0};
+        return () -> {
+            // Turn a little every frame so successive invocations see different walls
+            angle[0] += 0.01;
+            raycaster.updatePlayer(spawn[0], spawn[1], angle[0]);
+            return raycaster.castRays();
+        };
+    }
+
+    public static DoubleSupplier playerMovement(String mapKind) throws IOException {
+        Map map = map(mapKind);
+        double[] spawn = spawn(mapKind, map);
+        Player player = new Player(spawn[0], spawn[1], 0);
+        return () -> {
+            player.rotate(0.05);
+            player.moveForward(map);
+            player.strafeLeft(map);
+            player.update(map);
+            return player.getX() + player.getY();
+        };
+    }
+
+    /**
+     * Minimap of a headless Game, fed by one raycast frame from the spawn point.
+     * Lidar dots accumulate across invocations, as in play.
+     */
+    public static Supplier<BufferedImage> miniMap(String mapKind, int width, int height) throws IOException {
+        Map map = map(mapKind);
+        double[] spawn = spawn(mapKind, map);
+        Game game = new Game(map, spawn[0], spawn[1]);
+        game.setSize(width, height);
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        RayHits hits = new RayHits();
+        new Raycaster(map, spawn[0], spawn[1], 0, width, height, 60, 1).castRays(target, hits);
+        return () -> {
+            Graphics g = target.getGraphics();
+            game.renderMiniMap(g, hits);
+            g.dispose();
+            return target;
+        };
+    }
+
+    /**
+     * Reads a level file in the given format ("text" or "binary"); generated maps,
+     * and asd in binary, are written to a temp file first.
+     */
+    public static Supplier<Object> levelLoad(String mapKind, String format) throws IOException {
+        boolean binary = "binary".equals(format);
+        File file;
+        if ("asd".equals(mapKind) && !binary) {
+            file = new File("levels", "asd.txt");
+        } else {
+            file = File.createTempFile("bench-" + mapKind, binary ? LevelFile.BINARY_SUFFIX : LevelFile.TEXT_SUFFIX);
+            file.deleteOnExit();
+            double[] spawn = spawn(mapKind, null);
+            if (binary) LevelFile.write(file, map(mapKind), (int) spawn[0], (int) spawn[1]);
+            else writeLevel(map(mapKind), spawn, file);
+        }
+        return () -> {
+            try {
+                return LevelFile.read(file);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    static Map map(String kind) throws IOException {
+        switch (kind) {
+            case "asd":  return LevelFile.read(new File("levels", "asd.txt")).map;
+            case "open": return new Map(openLayout(LARGE_MAP_SIZE));
+            case "maze": return new Map(mazeLayout(LARGE_MAP_SIZE, 42));
+            case "huge": return Map.open(hugeChunkFile());
+            default: throw new IllegalArgumentException("Unknown map: " + kind);
+        }
+    }
+
+    static double[] spawn(String kind, Map map) throws IOException {
+        if ("asd".equals(kind)) {
+            LevelFile level = LevelFile.read(new File("levels", "asd.txt"));
+            return new double[]{level.spawnCentreX(), level.spawnCentreY()};
+        }
+        // Odd coordinates are always open in the generated layouts
+        int c = ("huge".equals(kind) ? HUGE_MAP_SIZE : LARGE_MAP_SIZE) / 2 | 1;
+        return new double[]{c + 0.5, c + 0.5};
+    }
+
+    /** Walled border with a sparse grid of pillars, so long rays still hit something. */
+    static char[][] openLayout(int size) {
+        char[][] layout = new char[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                layout[y][x] = openTile(x, y, size);
+            }
+        }
+        return layout;
+    }
+
+    private static char openTile(int x, int y, int size) {
+        boolean border = x == 0 || y == 0 || x == size - 1 || y == size - 1;
+        boolean pillar = x % 32 == 16 && y % 32 == 16;
+        return border || pillar ? '1' : '0';
+    }
+
+    /** The open layout at HUGE_MAP_SIZE as a chunk file, written once per JVM (about 100 MB). */
+    static synchronized File hugeChunkFile() throws IOException {
+        if (hugeFile == null) {
+            File file = File.createTempFile("bench-huge", ".chunks");
+            file.deleteOnExit();
+            ChunkedTileStore.write(file, HUGE_MAP_SIZE, HUGE_MAP_SIZE,
+                    (x, y) -> openTile(x, y, HUGE_MAP_SIZE));
+            hugeFile = file;
+        }
+        return hugeFile;
+    }
+
+    private static File hugeFile;
+
+    /** Perfect maze carved by a seeded depth-first search; cells sit on odd coordinates. */
+    static char[][] mazeLayout(int size, long seed) {
+        char[][] layout = new char[size][size];
+        for (char[] row : layout) Arrays.fill(row, '1');
+        Random random = new Random(seed);
+        Deque<int[]> stack = new ArrayDeque<>();
+        layout[1][1] = '0';
+        stack.push(new int[]{1, 1});
+        int[][] dirs = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+        while (!stack.isEmpty()) {
+            int[] cell = stack.peek();
+            int start = random.nextInt(4);
+            boolean carved = false;
+            for (int k = 0; k < 4 && !carved; k++) {
+                int[] d = dirs[(start + k) % 4];
+                int nx = cell[0] + d[0], ny = cell[1] + d[1];
+                if (nx > 0 && ny > 0 && nx < size - 1 && ny < size - 1 && layout[ny][nx] == '1') {
+                    layout[cell[1] + d[1] / 2][cell[0] + d[0] / 2] = '0';
+                    layout[ny][nx] = '0';
+                    stack.push(new int[]{nx, ny});
+                    carved = true;
+                }
+            }
+            if (!carved) stack.pop();
+        }
+        return layout;
+    }
+
+    static void writeLevel(Map map, double[] spawn, File file) throws IOException {
+        int sx = (int) spawn[0], sy = (int) spawn[1];
+        try (Writer writer = Files.newBufferedWriter(file.toPath())) {
+            for (int y = 0; y < map.getHeight(); y++) {
+                for (int x = 0; x < map.getWidth(); x++) {
+                    writer.write(x == sx && y == sy ? 'P' : map.getTile(x, y));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+}
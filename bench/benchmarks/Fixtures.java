@@ -0,0 +1,23 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/** Reflective bridge to BenchFixtures, which lives in the default package with the game. */
+final class Fixtures {
+    private Fixtures() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(String name, Object... args) throws Exception {
+        for (Method method : Class.forName("BenchFixtures").getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+                try {
+                    return (T) method.invoke(null, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        throw new NoSuchMethodException("BenchFixtures." + name);
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Reading a level file from disk into a Map, from the text or the binary format. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+    @Param({"asd", "open", "maze"})
+    public String map;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private Supplier<Object> load;
+
+    @Setup
+    public void setUp() throws Exception {
+        load = Fixtures.get("levelLoad", map, format);
+    }
+
+    @Benchmark
+    public Object loadLevel() {
+        return load.get();
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Game.renderMiniMap into an offscreen image. Lidar dots persist between
+ * invocations like they do over a play session, so later iterations include
+ * the cost of everything accumulated earlier.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiniMapBenchmark {
+    @Param({"asd", "open", "maze", "huge"})
+    public String map;
+
+    @Param({"800x600"})
+    public String canvas;
+
+    private Supplier<BufferedImage> frame;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] size = canvas.split("x");
+        frame = Fixtures.get("miniMap", map, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    }
+
+    @Benchmark
+    public BufferedImage renderMiniMap() {
+        return frame.get();
+    }
+}
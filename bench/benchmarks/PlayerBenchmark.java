@@ -0,0 +1,30 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import org.openjdk.jmh.annotations.*;
+
+/** One simulation step of movement: rotate, forward, strafe and stamina update, with wall collision. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    @Param({"asd", "open", "maze", "huge"})
+    public String map;
+
+    private DoubleSupplier step;
+
+    @Setup
+    public void setUp() throws Exception {
+        step = Fixtures.get("playerMovement", map);
+    }
+
+    @Benchmark
+    public double moveAndCollide() {
+        return step.getAsDouble();
+    }
+}
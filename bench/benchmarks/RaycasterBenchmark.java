@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+
+/** One full castRays() frame across canvas sizes, ray resolutions, FOVs and maps. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RaycasterBenchmark {
+    @Param({"640x480", "800x600", "1920x1080"})
+    public String canvas;
+
+    @Param({"1", "2", "4"})
+    public int rayResolution;
+
+    @Param({"60", "90", "120"})
+    public int fov;
+
+    @Param({"asd", "open", "maze", "huge"})
+    public String map;
+
+    /** Worker threads for column strips; override with -p threads=N. */
+    @Param({"1"})
+    public int threads;
+
+    private Supplier<BufferedImage> frame;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] size = canvas.split("x");
+        frame = Fixtures.get("castRays", map, Integer.parseInt(size[0]), Integer.parseInt(size[1]),
+                fov, rayResolution, threads);
+    }
+
+    @Benchmark
+    public BufferedImage castRays() {
+        return frame.get();
+    }
+}
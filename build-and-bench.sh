@@ -0,0 +1,36 @@
+#!/bin/bash
+
+# Runs the JMH benchmarks headless and writes the results to bench_output.json.
+# Extra arguments go straight to JMH, e.g.
+#   ./build-and-bench.sh RaycasterBenchmark -p map=maze -p threads=8
+
+set -e
+cd "$(dirname "$0")"
+
+JMH_VERSION=1.37
+JMH_DIR=lib/jmh
+REPO=https://repo1.maven.org/maven2
+
+# Fetch JMH and its dependencies once
+mkdir -p "$JMH_DIR"
+for artifact in \
+    "org/openjdk/jmh/jmh-core/$JMH_VERSION/jmh-core-$JMH_VERSION.jar" \
+    "org/openjdk/jmh/jmh-generator-annprocess/$JMH_VERSION/jmh-generator-annprocess-$JMH_VERSION.jar" \
+    "net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar" \
+    "org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"; do
+    jar="$JMH_DIR/$(basename "$artifact")"
+    [ -f "$jar" ] || curl -sSfL -o "$jar" "$REPO/$artifact"
+done
+
+# Compile the game (without the JUnit tests) together with the benchmarks;
+# javac only expands classpath wildcards, so the processor path is spelled out
+JMH_CP=$(ls "$JMH_DIR"/*.jar | tr '\n' ':')
+OUT=out/bench
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -d "$OUT" -cp "$JMH_CP" -processorpath "$JMH_CP" \
+    $(ls src/*.java | grep -v 'Test\.java$') bench/*.java bench/benchmarks/*.java
+
+# Run from the repo root so levels/ and textures/ resolve
+java -Djava.awt.headless=true -cp "$OUT:$JMH_CP" org.openjdk.jmh.Main \
+    -rf json -rff bench_output.json "$@"
@@ -0,0 +1,115 @@
+import java.awt.AWTException;
+import java.awt.Robot;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+
+/**
+ * Loads the game's heavy assets in the background so they are ready by the time
+ * the first Game is built. {@link #start()} is called as the app starts and kicks
+ * off the textures, the background music clip and the mouse Robot in parallel,
+ * while the players are still in the editor.
+ *
+ * Textures and sounds live in the shared AssetManager: users hold a handle, which
+ * only blocks if the load is not done yet and starts it when nothing did (tests,
+ * benchmarks). The Robot is a plain future.
+ */
+public final class AssetLoader {
+    // One thread per kind of asset; daemon so an unfinished load never keeps the JVM up
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(3, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "asset-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private static final double TEXTURE_SCALE = 1.0;
+    // Budget for cached textures and sounds (-Drays.assetBudgetMB=N)
+    private static final long BUDGET_BYTES = Long.getLong("rays.assetBudgetMB", 256) << 20;
+    private static final String TEXTURES = "textures";
+    private static final AssetManager ASSETS = new AssetManager(BUDGET_BYTES, POOL);
+
+    private static CompletableFuture<Robot> robot;
+
+    private AssetLoader() {}
+
+    /** Starts every asset the game needs loading in the background. */
+    public static void start() {
+        ASSETS.prefetch(TEXTURES, AssetLoader::loadTextures, TextureSet::getBytes, null);
+        ASSETS.prefetch(musicKey(SoundManager.BACKGROUND_MUSIC),
+                () -> loadClip(SoundManager.BACKGROUND_MUSIC), AssetLoader::clipBytes, Clip::close);
+        robot();
+    }
+
+    public static AssetManager assets() {
+        return ASSETS;
+    }
+
+    /** A handle on the renderer's textures; close it when the raycaster is done with them. */
+    public static AssetManager.Handle<TextureSet> acquireTextures() {
+        return ASSETS.acquire(TEXTURES, AssetLoader::loadTextures, TextureSet::getBytes, null);
+    }
+
+    /** A handle on a music clip, opened (decoded into memory) but not started. */
+    public static AssetManager.Handle<Clip> acquireMusic(String path) {
+        return ASSETS.acquire(musicKey(path), () -> loadClip(path), AssetLoader::clipBytes, Clip::close);
+    }
+
+    private static TextureSet loadTextures() throws IOException {
+        return new TextureSet(TextureCache.load(TEXTURE_SCALE), Raycaster.INDEXED_COLOR, Raycaster.LIGHT_LEVELS);
+    }
+
+    private static String musicKey(String path) {
+        return "sound:" + path;
+    }
+
+    private static Clip loadClip(String path) throws Exception {
+        try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(new File(path))) {
+            Clip clip = AudioSystem.getClip();
+            clip.open(audioStream);
+            return clip;
+        }
+    }
+
+    private static long clipBytes(Clip clip) {
+        return Math.max(0, clip.getFrameLength()) * (long) Math.max(1, clip.getFormat().getFrameSize());
+    }
+
+    public static synchronized CompletableFuture<Robot> robot() {
+        if (robot == null) {
+            robot = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new Robot();
+                } catch (AWTException e) {
+                    throw new CompletionException(e);
+                }
+            }, POOL);
+        }
+        return robot;
+    }
+
+    /** Waits for the Robot if it is still being created; null (after logging why) if it failed. */
+    public static Robot getRobot() {
+        return getOrNull(robot());
+    }
+
+    private static <T> T getOrNull(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            e.getCause().printStackTrace();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Shared, reference-counted assets under a memory budget. Each asset is loaded
+ * once per key on the executor and handed out through {@link Handle}s; while any
+ * handle is open the asset stays resident. Released assets stay cached for the
+ * next user until the resident total goes over the budget, then the least
+ * recently used ones are disposed first.
+ *
+ * An asset's size is measured once when its load finishes. Loads that fail are
+ * dropped as soon as nobody holds them, so a later acquire retries.
+ */
+public class AssetManager {
+    /** Loads one asset; whatever it throws comes out of {@link Handle#get()}. */
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    /** An open reference to an asset. Closing it more than once is harmless. */
+    public static final class Handle<T> implements AutoCloseable {
+        private final AssetManager owner;
+        private final Entry<T> entry;
+        private boolean closed;
+
+        private Handle(AssetManager owner, Entry<T> entry) {
+            this.owner = owner;
+            this.entry = entry;
+        }
+
+        /** The asset, waiting for its load to finish if necessary. */
+        public T get() throws IOException {
+            try {
+                return entry.value.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Failed to load " + entry.key + ": " + cause, cause);
+            }
+        }
+
+        public String getKey() {
+            return entry.key;
+        }
+
+        @Override
+        public void close() {
+            synchronized (owner) {
+                if (closed) return;
+                closed = true;
+                owner.release(entry);
+            }
+        }
+    }
+
+    private static final class Entry<T> {
+        final String key;
+        final ToLongFunction<T> sizer;
+        final Consumer<T> disposer;
+        CompletableFuture<T> value;
+        int refs;
+        long bytes;
+        boolean loaded;
+
+        Entry(String key, ToLongFunction<T> sizer, Consumer<T> disposer) {
+            this.key = key;
+            this.sizer = sizer;
+            this.disposer = disposer;
+        }
+
+        boolean failed() {
+            return value.isCompletedExceptionally();
+        }
+
+        void dispose() {
+            if (loaded && disposer != null) disposer.accept(value.join());
+        }
+    }
+
+    private final long budgetBytes;
+    private final Executor executor;
+    // Access-ordered: iteration starts at the least recently acquired asset
+    private final LinkedHashMap<String, Entry<?>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long residentBytes;
+    private long evictions;
+
+    public AssetManager(long budgetBytes, Executor executor) {
+        this.budgetBytes = budgetBytes;
+        this.executor = executor;
+    }
+
+    /**
+     * Opens a handle on the asset under {@code key}, starting its load if it is not
+     * resident. {@code sizer} measures the loaded asset in bytes; {@code disposer}
+     * (may be null) releases it when evicted.
+     */
+    public synchronized <T> Handle<T> acquire(String key, Loader<T> loader,
+                                              ToLongFunction<T> sizer, Consumer<T> disposer) {
+        return new Handle<>(this, entry(key, loader, sizer, disposer, 1));
+    }
+
+    /** Starts loading the asset without holding it, so a later acquire finds it ready. */
+    public synchronized <T> void prefetch(String key, Loader<T> loader,
+                                          ToLongFunction<T> sizer, Consumer<T> disposer) {
+        entry(key, loader, sizer, disposer, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    // The reference is taken before the load starts, so an inline or instant load
+    // cannot be evicted before the caller holds it
+    private <T> Entry<T> entry(String key, Loader<T> loader, ToLongFunction<T> sizer,
+                               Consumer<T> disposer, int refs) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry != null && entry.failed() && entry.refs == 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry != null) {
+            entry.refs += refs;
+            return entry;
+        }
+        Entry<T> created = new Entry<>(key, sizer, disposer);
+        created.refs = refs;
+        entries.put(key, created);
+        created.value = CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.load();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        created.value.thenAccept(asset -> loaded(created, asset));
+        return created;
+    }
+
+    private synchronized <T> void loaded(Entry<T> entry, T asset) {
+        entry.bytes = entry.sizer.applyAsLong(asset);
+        entry.loaded = true;
+        residentBytes += entry.bytes;
+        evict();
+    }
+
+    private void release(Entry<?> entry) {
+        entry.refs--;
+        evict();
+    }
+
+    // Drops unreferenced failures, then unreferenced assets oldest first until under budget
+    private void evict() {
+        for (Iterator<Entry<?>> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry<?> entry = it.next();
+            if (entry.refs > 0) continue;
+            if (entry.failed()) {
+                it.remove();
+            } else if (entry.loaded && residentBytes > budgetBytes) {
+                it.remove();
+                residentBytes -= entry.bytes;
+                evictions++;
+                entry.dispose();
+            }
+        }
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized boolean isResident(String key) {
+        // Not entries.get(): that would count as a use and reorder the LRU
+        for (Entry<?> entry : entries.values()) {
+            if (entry.key.equals(key)) return entry.loaded;
+        }
+        return false;
+    }
+
+    /** One line per asset, least recently used first: key, open handles and resident size. */
+    public synchronized String[] summaryLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("assets: %.1f / %.0f MB", residentBytes / 1048576.0, budgetBytes / 1048576.0));
+        for (Entry<?> entry : entries.values()) {
+            String state = entry.loaded ? String.format("%.1f MB", entry.bytes / 1048576.0)
+                                        : entry.failed() ? "failed" : "loading";
+            lines.add(String.format("  %s x%d %s", entry.key, entry.refs, state));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /** Writes every asset's key, open handles and resident bytes to {@code assets.csv} in {@code dir}. */
+    public synchronized File exportCsv(File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        File file = new File(dir, "assets.csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file.toPath()))) {
+            out.println("asset,refs,state,bytes");
+            for (Entry<?> entry : entries.values()) {
+                String state = entry.loaded ? "resident" : entry.failed() ? "failed" : "loading";
+                out.println(entry.key + ',' + entry.refs + ',' + state + ',' + entry.bytes);
+            }
+        }
+        return file;
+    }
+}
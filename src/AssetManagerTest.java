@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AssetManagerTest {
+    // Loads run inline so residency is settled when acquire returns
+    private final AssetManager assets = new AssetManager(100, Runnable::run);
+    private final List<String> disposed = new ArrayList<>();
+
+    private AssetManager.Handle<String> acquire(String key, long bytes) {
+        return assets.acquire(key, () -> key, s -> bytes, disposed::add);
+    }
+
+    @Test
+    void testHeldAssetsSurviveTheBudgetAndAreEvictedOnRelease() throws Exception {
+        AssetManager.Handle<String> big = acquire("big", 150);
+        assertEquals("big", big.get());
+        assertTrue(assets.isResident("big"));
+        assertEquals(150, assets.getResidentBytes());
+
+        big.close();
+        big.close();
+        assertFalse(assets.isResident("big"));
+        assertEquals(0, assets.getResidentBytes());
+        assertEquals(List.of("big"), disposed);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedFirst() {
+        acquire("a", 40).close();
+        acquire("b", 40).close();
+        acquire("a", 40).close(); // a is now more recent than b
+        acquire("c", 40).close();
+        assertEquals(List.of("b"), disposed);
+        assertTrue(assets.isResident("a"));
+        assertTrue(assets.isResident("c"));
+        assertEquals(80, assets.getResidentBytes());
+    }
+
+    @Test
+    void testSharedKeyLoadsOnceAndFailuresRetry() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AssetManager.Handle<Integer> first = assets.acquire("n", loads::incrementAndGet, n -> 1, null);
+        AssetManager.Handle<Integer> second = assets.acquire("n", loads::incrementAndGet, n -> 1, null);
+        assertEquals(1, first.get());
+        assertEquals(1, second.get());
+
+        AssetManager.Handle<String> broken = assets.acquire("broken", () -> {
+            throw new IOException("missing");
+        }, s -> 1, null);
+        assertThrows(IOException.class, broken::get);
+        broken.close();
+        assertEquals("ok", assets.acquire("broken", () -> "ok", s -> 1, null).get());
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Immutable view of everything the renderer needs for one frame. The
+ * simulation thread publishes a fresh snapshot every tick; the render thread
+ * only ever reads snapshots, never the live Player or Game settings.
+ *
+ * A snapshot carries both the previous and the current tick's camera so the
+ * renderer can blend between them at any render time, independent of the
+ * fixed simulation rate.
+ */
+public final class CameraSnapshot {
+    public final double x, y, angle;
+    public final double prevX, prevY, prevAngle;
+    public final int fov, rayResolution, renderThreads;
+    // Time the current state became visible, and the tick length; 0 disables blending
+    private final long tickTime, tickNanos;
+
+    public CameraSnapshot(double x, double y, double angle,
+                          int fov, int rayResolution, int renderThreads) {
+        this(x, y, angle, x, y, angle, 0L, 0L, fov, rayResolution, renderThreads);
+    }
+
+    public CameraSnapshot(double x, double y, double angle,
+                          double prevX, double prevY, double prevAngle,
+                          long tickTime, long tickNanos,
+                          int fov, int rayResolution, int renderThreads) {
+        this.x = x;
+        this.y = y;
+        this.angle = angle;
+        this.prevX = prevX;
+        this.prevY = prevY;
+        this.prevAngle = prevAngle;
+        this.tickTime = tickTime;
+        this.tickNanos = tickNanos;
+        this.fov = fov;
+        this.rayResolution = rayResolution;
+        this.renderThreads = renderThreads;
+    }
+
+    /** Blend factor from the previous (0) to the current (1) tick at time {@code now}. */
+    public double alpha(long now) {
+        if (tickNanos <= 0) return 1.0;
+        return Math.max(0.0, Math.min(1.0, (now - tickTime) / (double) tickNanos));
+    }
+
+    /** True once blending has reached the current tick; rendering again would repeat the frame. */
+    public boolean isSettled(long now) {
+        return alpha(now) >= 1.0;
+    }
+
+    /** Camera blended for render time {@code now}. */
+    public CameraSnapshot interpolate(long now) {
+        return interpolate(now, rayResolution);
+    }
+
+    /** As {@link #interpolate(long)}, rendered at a different ray resolution. */
+    public CameraSnapshot interpolate(long now, int rayResolution) {
+        double a = alpha(now);
+        return new CameraSnapshot(prevX + (x - prevX) * a,
+                                  prevY + (y - prevY) * a,
+                                  prevAngle + (angle - prevAngle) * a,
+                                  fov, rayResolution, renderThreads);
+    }
+}
@@ -0,0 +1,249 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.zip.CRC32;
+
+/**
+ * Tiles of a map too large for the heap, paged from a memory-mapped file in
+ * 64x64 chunks. Only a bounded number of chunks are decoded at a time (one byte
+ * per tile plus one long of wall bits per chunk row); the least recently used
+ * are dropped when a new one is needed, so the resident set follows the player
+ * and whatever the rays reach.
+ *
+ * Reads are lock-free and may come from any thread (render workers, the sim
+ * thread, the minimap). Decoding a chunk and setTile are synchronized; setTile
+ * writes through to the file, so an evicted chunk never needs writing back.
+ *
+ * The payload is chunk-ordered: chunk (cx, cy) is CHUNK_BYTES bytes at
+ * (cy * chunksX + cx) * CHUNK_BYTES, its rows of CHUNK tile codes in order.
+ * Tiles past the map's edge in the last row or column of chunks are walls.
+ * A standalone chunk file is a 16-byte header (magic, version, width, height;
+ * little-endian) followed by the payload.
+ */
+public class ChunkedTileStore {
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK = 1 << CHUNK_SHIFT;
+    public static final int CHUNK_BYTES = CHUNK * CHUNK;
+    private static final int MASK = CHUNK - 1;
+    private static final int MAGIC = 0x4B484352; // "RCHK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // Mappings are split into segments below the 2 GB buffer limit; a whole number
+    // of chunks each, so no chunk straddles two
+    private static final long SEGMENT_BYTES = 1L << 30;
+    // Decoded chunks kept at once (-Drays.mapChunks=N); 4096 is a 4096x4096-tile area,
+    // about 19 MB, enough that rays across open ground do not churn the cache
+    private static final int DEFAULT_RESIDENT = Integer.getInteger("rays.mapChunks", 4096);
+
+    /** One decoded chunk: tile codes row-major, and bit x of walls[y] set for wall tiles. */
+    static final class Chunk {
+        final byte[] tiles = new byte[CHUNK_BYTES];
+        final long[] walls = new long[CHUNK];
+        // Second-chance bit for the clock; set on lookup when clear, racy by design
+        boolean used = true;
+    }
+
+    private final int width, height, chunksX, chunksY;
+    private final MappedByteBuffer[] segments;
+    private final AtomicReferenceArray<Chunk> resident;
+    // Clock over the resident chunks' indices; -1 marks a free slot
+    private final int[] clock;
+    private int hand;
+
+    private ChunkedTileStore(FileChannel channel, long payloadOffset, int width, int height,
+                             boolean writable, int maxResident) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + MASK) >> CHUNK_SHIFT;
+        long payload = payloadBytes(width, height);
+        if (channel.size() < payloadOffset + payload) {
+            throw new IOException("Chunk payload truncated: " + channel.size() + " < " + (payloadOffset + payload));
+        }
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        segments = new MappedByteBuffer[(int) ((payload + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+        for (int s = 0; s < segments.length; s++) {
+            long start = s * SEGMENT_BYTES;
+            segments[s] = channel.map(mode, payloadOffset + start, Math.min(SEGMENT_BYTES, payload - start));
+        }
+        resident = new AtomicReferenceArray<>(chunksX * chunksY);
+        clock = new int[Math.max(4, maxResident)];
+        Arrays.fill(clock, -1);
+    }
+
+    /** Opens a standalone chunk file, writable if the file is. */
+    public static ChunkedTileStore open(File file) throws IOException {
+        return open(file, DEFAULT_RESIDENT);
+    }
+
+    static ChunkedTileStore open(File file, int maxResident) throws IOException {
+        boolean writable = file.canWrite();
+        try (FileChannel channel = writable
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a chunk file: " + file);
+            }
+            if (header.getInt() != VERSION) throw new IOException("Unsupported chunk file version: " + file);
+            int width = header.getInt(), height = header.getInt();
+            if (width <= 0 || height <= 0) throw new IOException("Bad map size " + width + "x" + height);
+            return new ChunkedTileStore(channel, HEADER_BYTES, width, height, writable, maxResident);
+        }
+    }
+
+    /**
+     * Maps a chunk payload at {@code offset} of an open channel. The mapping stays
+     * valid after the channel is closed.
+     */
+    public static ChunkedTileStore open(FileChannel channel, long offset, int width, int height,
+                                        boolean writable) throws IOException {
+        if (width <= 0 || height <= 0) throw new IOException("Bad map size " + width + "x" + height);
+        return new ChunkedTileStore(channel, offset, width, height, writable, DEFAULT_RESIDENT);
+    }
+
+    /** Source of tile codes for {@link #write}. */
+    public interface TileSource {
+        char tileAt(int x, int y);
+    }
+
+    /** Writes a standalone chunk file of the given size, one chunk at a time. */
+    public static void write(File file, int width, int height, TileSource source) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).flip();
+            while (header.hasRemaining()) channel.write(header);
+            writePayload(channel, width, height, source);
+        }
+    }
+
+    /** Appends the chunk-ordered payload for a map to a channel at its position; returns its CRC32. */
+    public static int writePayload(FileChannel channel, int width, int height, TileSource source) throws IOException {
+        int chunksX = (width + MASK) >> CHUNK_SHIFT, chunksY = (height + MASK) >> CHUNK_SHIFT;
+        // A row of chunks per write keeps the syscalls few without buffering the map
+        ByteBuffer band = ByteBuffer.allocate(chunksX * CHUNK_BYTES);
+        CRC32 crc = new CRC32();
+        for (int cy = 0; cy < chunksY; cy++) {
+            band.clear();
+            for (int cx = 0; cx < chunksX; cx++) {
+                for (int ly = 0; ly < CHUNK; ly++) {
+                    int y = cy << CHUNK_SHIFT | ly;
+                    for (int lx = 0; lx < CHUNK; lx++) {
+                        int x = cx << CHUNK_SHIFT | lx;
+                        band.put(x < width && y < height ? (byte) source.tileAt(x, y) : (byte) Tiles.WALL);
+                    }
+                }
+            }
+            band.flip();
+            crc.update(band.array(), 0, band.limit());
+            while (band.hasRemaining()) channel.write(band);
+        }
+        return (int) crc.getValue();
+    }
+
+    /** Size in bytes of the payload for a map of the given size. */
+    public static long payloadBytes(int width, int height) {
+        return (long) ((width + MASK) >> CHUNK_SHIFT) * ((height + MASK) >> CHUNK_SHIFT) * CHUNK_BYTES;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /** The chunk at chunk coordinates (cx, cy), decoding it if it is not resident. */
+    Chunk chunk(int cx, int cy) {
+        int index = cy * chunksX + cx;
+        Chunk chunk = resident.get(index);
+        if (chunk == null) return load(index);
+        // Only written when clear: an unconditional store from every render thread would
+        // keep bouncing the cache line
+        if (!chunk.used) chunk.used = true;
+        return chunk;
+    }
+
+    public boolean isWall(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return true;
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return (chunk.walls[y & MASK] >>> (x & MASK) & 1) != 0;
+    }
+
+    /** The tile code at (x, y); throws IndexOutOfBoundsException outside the map. */
+    public char getTile(int x, int y) {
+        if (Integer.compareUnsigned(x, width) >= 0 || Integer.compareUnsigned(y, height) >= 0) {
+            throw new IndexOutOfBoundsException("Tile " + x + "," + y + " outside " + width + "x" + height);
+        }
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return (char) (chunk.tiles[(y & MASK) << CHUNK_SHIFT | (x & MASK)] & 0xFF);
+    }
+
+    /** Changes one tile in the resident chunk (if any) and in the file. */
+    public synchronized void setTile(int x, int y, char tile) {
+        int index = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        int offset = (y & MASK) << CHUNK_SHIFT | (x & MASK);
+        long pos = (long) index * CHUNK_BYTES + offset;
+        segments[(int) (pos / SEGMENT_BYTES)].put((int) (pos % SEGMENT_BYTES), (byte) tile);
+        Chunk chunk = resident.get(index);
+        if (chunk != null) {
+            chunk.tiles[offset] = (byte) tile;
+            long bit = 1L << (x & MASK);
+            if (Tiles.isWall(tile)) chunk.walls[y & MASK] |= bit;
+            else chunk.walls[y & MASK] &= ~bit;
+        }
+    }
+
+    /** Number of chunks decoded right now; at most the resident limit. */
+    public int getResidentChunks() {
+        int count = 0;
+        for (int slot : clock) if (slot >= 0) count++;
+        return count;
+    }
+
+    private synchronized Chunk load(int index) {
+        Chunk chunk = resident.get(index);
+        if (chunk != null) return chunk;
+        chunk = new Chunk();
+        long pos = (long) index * CHUNK_BYTES;
+        segments[(int) (pos / SEGMENT_BYTES)].get((int) (pos % SEGMENT_BYTES), chunk.tiles);
+        byte[] ids = Tiles.TEXTURE_ID;
+        for (int y = 0; y < CHUNK; y++) {
+            long row = 0;
+            for (int x = 0, i = y << CHUNK_SHIFT; x < CHUNK; x++, i++) {
+                byte t = chunk.tiles[i];
+                // Codes above 127 (negative bytes) are never walls
+                if (t >= 0 && ids[t] >= 0) row |= 1L << x;
+            }
+            chunk.walls[y] = row;
+        }
+
+        // Clock: skip chunks used since the hand last passed, dropping their bit
+        while (true) {
+            int slot = clock[hand];
+            if (slot < 0) break;
+            Chunk old = resident.get(slot);
+            if (!old.used) {
+                // Threads still holding the old chunk keep reading it safely
+                resident.set(slot, null);
+                break;
+            }
+            old.used = false;
+            hand = (hand + 1) % clock.length;
+        }
+        clock[hand] = index;
+        hand = (hand + 1) % clock.length;
+        resident.set(index, chunk);
+        return chunk;
+    }
+}
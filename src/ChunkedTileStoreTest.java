@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.nio.file.Path;
+
+class ChunkedTileStoreTest {
+    @TempDir
+    Path dir;
+
+    // Walled border, scattered walls of every code and a few trap tiles; 150x90 spans
+    // partial chunks on both edges
+    private static char tile(int x, int y, int w, int h) {
+        if (x == 0 || y == 0 || x == w - 1 || y == h - 1) return '1';
+        int n = (x * 31 + y * 17) % 23;
+        if (n < 5) return Tiles.WALL_CODES[n];
+        return n == 7 ? 'T' : '0';
+    }
+
+    private File write(int w, int h) throws Exception {
+        File file = dir.resolve("level.chunks").toFile();
+        ChunkedTileStore.write(file, w, h, (x, y) -> tile(x, y, w, h));
+        return file;
+    }
+
+    @Test
+    void testReadsBackEveryTileWithFewResidentChunks() throws Exception {
+        int w = 150, h = 90;
+        ChunkedTileStore store = ChunkedTileStore.open(write(w, h), 4);
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                assertEquals(tile(x, y, w, h), store.getTile(x, y));
+                assertEquals(Tiles.isWall(tile(x, y, w, h)), store.isWall(x, y));
+            }
+        }
+        assertTrue(store.isWall(-1, 5));
+        assertTrue(store.isWall(w, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getTile(-1, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getTile(w, 5));
+        assertTrue(store.getResidentChunks() <= 4);
+
+        store.setTile(70, 70, '3');
+        assertTrue(store.isWall(70, 70));
+        assertEquals('3', ChunkedTileStore.open(dir.resolve("level.chunks").toFile()).getTile(70, 70));
+    }
+
+    @Test
+    void testDiskBackedMapRendersLikeFlatMap() throws Exception {
+        int w = 150, h = 90;
+        char[][] layout = new char[h][w];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) layout[y][x] = tile(x, y, w, h);
+        }
+        Map flat = new Map(layout);
+        Map chunked = new Map(ChunkedTileStore.open(write(w, h), 4));
+        flat.setTile(70, 45, '0');
+        chunked.setTile(70, 45, '0');
+
+        for (double angle : new double[]{0, 1.3, 2.9, 4.4}) {
+            BufferedImage a = new Raycaster(flat, 70.5, 45.5, angle, 320, 200, 60, 1).castRays();
+            BufferedImage b = new Raycaster(chunked, 70.5, 45.5, angle, 320, 200, 60, 1).castRays();
+            assertArrayEquals(((DataBufferInt) a.getRaster().getDataBuffer()).getData(),
+                              ((DataBufferInt) b.getRaster().getDataBuffer()).getData());
+        }
+    }
+}
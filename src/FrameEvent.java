@@ -0,0 +1,31 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed once per presented frame with the time spent in each
+ * stage, so a recording lines frame hitches up against GC, safepoints and
+ * I/O. Only emitted while a recording with this event enabled is running.
+ */
+@Name("rays.Frame")
+@Label("Frame")
+@Category("Rays")
+@Description("Per-stage timings of one presented frame")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame") public long frame;
+    @Label("Input") @Timespan public long input;
+    @Label("Update") @Timespan public long update;
+    @Label("Sky") @Timespan public long sky;
+    @Label("Walls") @Timespan public long walls;
+    @Label("Floor") @Timespan public long floor;
+    @Label("HUD") @Timespan public long hud;
+    @Label("Minimap") @Timespan public long minimap;
+    @Label("Present") @Timespan public long present;
+    @Label("GC Collections") public long gcCount;
+    @Label("GC Time") @Timespan(Timespan.MILLISECONDS) public long gcMillis;
+}
@@ -0,0 +1,34 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free triple buffer between the render thread (producer) and the present
+ * thread (consumer). The producer always has a back frame to draw into, the
+ * consumer always gets the most recently finished frame, and neither waits on
+ * the other; frames the consumer was too slow for are simply overwritten.
+ */
+public class FrameExchange {
+    // Set on the ready index while it holds a frame the consumer has not taken yet
+    private static final int FRESH = 4;
+
+    private final RenderFrame[] frames = {new RenderFrame(), new RenderFrame(), new RenderFrame()};
+    private final AtomicInteger ready = new AtomicInteger(1);
+    private int back = 0;   // producer-owned
+    private int front = 2;  // consumer-owned
+
+    /** Frame the producer may draw into until its next publish(). */
+    public RenderFrame backFrame() {
+        return frames[back];
+    }
+
+    /** Hands the back frame over as the newest finished frame. */
+    public void publish() {
+        back = ready.getAndSet(back | FRESH) & 3;
+    }
+
+    /** Newest finished frame, or null when nothing was published since the last call. */
+    public RenderFrame takeLatest() {
+        if ((ready.get() & FRESH) == 0) return null;
+        front = ready.getAndSet(front) & 3;
+        return frames[front];
+    }
+}
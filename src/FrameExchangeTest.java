@@ -0,0 +1,32 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameExchangeTest {
+
+    @Test
+    void testTakeLatestReturnsNullUntilPublished() {
+        FrameExchange exchange = new FrameExchange();
+        assertNull(exchange.takeLatest());
+
+        RenderFrame drawn = exchange.backFrame();
+        exchange.publish();
+        assertSame(drawn, exchange.takeLatest());
+        assertNull(exchange.takeLatest(), "A frame is only handed out once");
+    }
+
+    @Test
+    void testConsumerGetsNewestFrameAndProducerNeverReusesIt() {
+        FrameExchange exchange = new FrameExchange();
+        exchange.backFrame().prepare(1, 1, null);
+        exchange.publish();
+        RenderFrame newest = exchange.backFrame();
+        exchange.publish();
+
+        RenderFrame taken = exchange.takeLatest();
+        assertSame(newest, taken, "Older unpresented frames are skipped");
+        for (int i = 0; i < 5; i++) {
+            assertNotSame(taken, exchange.backFrame(), "Producer must not draw into the presented frame");
+            exchange.publish();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.List;
+import jdk.jfr.EventType;
+
+/**
+ * Times each stage of a frame and keeps a per-stage latency histogram plus a
+ * log of the most recent frames. Every logged frame also records how many
+ * garbage collections finished since the previous one and how long they took
+ * (from the GC MXBeans). A hitch can then be traced to rendering, presenting
+ * or GC.
+ *
+ * Stages are recorded from the thread that runs them (simulation, render or
+ * present). The present thread closes each frame with endFrame(). The data can
+ * be shown as a HUD overlay, exported to CSV, or captured as JFR FrameEvents.
+ */
+public class FrameMetrics {
+    public enum Stage {
+        INPUT("input"), UPDATE("update"), SKY("sky"), WALLS("walls"), FLOOR("floor"),
+        HUD("hud"), MINIMAP("minimap"), PRESENT("present");
+
+        public final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    // Frames kept for the CSV frame log
+    private static final int HISTORY = 1024;
+    // Row layout: one column per stage, then GC count, GC millis, frame end time
+    private static final int GC_COUNT = STAGES.length, GC_MILLIS = STAGES.length + 1, END_TIME = STAGES.length + 2;
+
+    private static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class);
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final long[] latest = new long[STAGES.length];
+    private final long[][] history = new long[HISTORY][STAGES.length + 3];
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private long frameCount = 0;
+    private long gcCountSeen, gcMillisSeen;
+    private long gcFrames = 0, gcCollections = 0, gcMillisTotal = 0;
+
+    public FrameMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        gcCountSeen = totalGcCount();
+        gcMillisSeen = totalGcMillis();
+    }
+
+    /** Records one run of a stage; call from the thread that ran it. */
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+        latest[stage.ordinal()] = nanos;
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Closes a presented frame: logs the latest time of every stage together with
+     * the GC activity since the previous frame, and emits a JFR event if enabled.
+     */
+    public synchronized void endFrame() {
+        long gcCount = totalGcCount(), gcMillis = totalGcMillis();
+        long newCollections = gcCount - gcCountSeen, newMillis = gcMillis - gcMillisSeen;
+        gcCountSeen = gcCount;
+        gcMillisSeen = gcMillis;
+        if (newCollections > 0) {
+            gcFrames++;
+            gcCollections += newCollections;
+            gcMillisTotal += newMillis;
+        }
+
+        long[] row = history[(int) (frameCount % HISTORY)];
+        System.arraycopy(latest, 0, row, 0, STAGES.length);
+        row[GC_COUNT] = newCollections;
+        row[GC_MILLIS] = newMillis;
+        row[END_TIME] = System.nanoTime();
+
+        if (FRAME_EVENT.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.frame = frameCount;
+            event.input = row[Stage.INPUT.ordinal()];
+            event.update = row[Stage.UPDATE.ordinal()];
+            event.sky = row[Stage.SKY.ordinal()];
+            event.walls = row[Stage.WALLS.ordinal()];
+            event.floor = row[Stage.FLOOR.ordinal()];
+            event.hud = row[Stage.HUD.ordinal()];
+            event.minimap = row[Stage.MINIMAP.ordinal()];
+            event.present = row[Stage.PRESENT.ordinal()];
+            event.gcCount = newCollections;
+            event.gcMillis = newMillis;
+            event.commit();
+        }
+        frameCount++;
+    }
+
+    /** Clears histograms and GC totals; the frame log is kept. */
+    public synchronized void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+        gcFrames = gcCollections = gcMillisTotal = 0;
+    }
+
+    /** Short text summary for the HUD overlay: p50/p95/p99 per stage and GC totals. */
+    public synchronized String[] summaryLines() {
+        String[] lines = new String[STAGES.length + 2];
+        lines[0] = String.format("%-8s %6s %6s %6s  ms", "stage", "p50", "p95", "p99");
+        for (Stage stage : STAGES) {
+            LatencyHistogram h = histograms[stage.ordinal()];
+            lines[stage.ordinal() + 1] = String.format("%-8s %6.2f %6.2f %6.2f", stage.label,
+                    h.percentile(50) / 1e6, h.percentile(95) / 1e6, h.percentile(99) / 1e6);
+        }
+        lines[lines.length - 1] = String.format("gc: %d in %d of %d frames, %d ms",
+                gcCollections, gcFrames, frameCount, gcMillisTotal);
+        return lines;
+    }
+
+    /**
+     * Writes the frame log (oldest first) to {@code frames.csv} and the per-stage
+     * percentiles to {@code stages.csv} inside {@code dir}, and returns the frame log file.
+     */
+    public synchronized File exportCsv(File dir) throws IOException {
+        Files.createDirectories(dir.toPath());
+        File framesFile = new File(dir, "frames.csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(framesFile.toPath()))) {
+            StringBuilder header = new StringBuilder("frame,end_ms");
+            for (Stage stage : STAGES) header.append(',').append(stage.label).append("_us");
+            out.println(header.append(",gc_count,gc_ms"));
+
+            long first = Math.max(0, frameCount - HISTORY);
+            long origin = first < frameCount ? history[(int) (first % HISTORY)][END_TIME] : 0;
+            for (long f = first; f < frameCount; f++) {
+                long[] row = history[(int) (f % HISTORY)];
+                StringBuilder line = new StringBuilder();
+                line.append(f).append(',').append(String.format("%.3f", (row[END_TIME] - origin) / 1e6));
+                for (int s = 0; s < STAGES.length; s++) {
+                    line.append(',').append(String.format("%.1f", row[s] / 1e3));
+                }
+                line.append(',').append(row[GC_COUNT]).append(',').append(row[GC_MILLIS]);
+                out.println(line);
+            }
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(new File(dir, "stages.csv").toPath()))) {
+            out.println("stage,count,mean_ms,p50_ms,p95_ms,p99_ms,max_ms");
+            for (Stage stage : STAGES) {
+                LatencyHistogram h = histograms[stage.ordinal()];
+                out.println(String.format("%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f", stage.label, h.getCount(),
+                        h.getMean() / 1e6, h.percentile(50) / 1e6, h.percentile(95) / 1e6,
+                        h.percentile(99) / 1e6, h.getMax() / 1e6));
+            }
+        }
+        return framesFile;
+    }
+
+    private long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : collectors) total += Math.max(0, gc.getCollectionCount());
+        return total;
+    }
+
+    private long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : collectors) total += Math.max(0, gc.getCollectionTime());
+        return total;
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Holds a loop to a target rate with sub-millisecond accuracy. Each wait parks
+ * the thread until shortly before the deadline and spins the remainder with
+ * Thread.onSpinWait(), because parking or sleeping alone truncates to the
+ * scheduler's granularity and overshoots by a variable amount.
+ *
+ * The pacer records how far each wake-up landed from its deadline so callers
+ * can show or log the pacing error.
+ */
+public class FramePacer {
+    // Parking is trusted to wake within this margin of the deadline; the rest is spun
+    private static final long SPIN_THRESHOLD_NANOS = 1_500_000L;
+    // Weight of the newest sample in the running mean of the absolute error
+    private static final double ERROR_SMOOTHING = 0.05;
+
+    private volatile long periodNanos;
+    private long deadline = 0;
+
+    private volatile long lastErrorNanos = 0;
+    private volatile double meanAbsErrorNanos = 0;
+
+    /** @param targetRate frames per second; 0 or less runs uncapped */
+    public FramePacer(double targetRate) {
+        setTargetRate(targetRate);
+    }
+
+    /** Changes the rate from any thread; takes effect on the next wait. */
+    public void setTargetRate(double targetRate) {
+        periodNanos = targetRate > 0 ? Math.round(1_000_000_000.0 / targetRate) : 0;
+    }
+
+    /** Frames per second, or 0 when uncapped. */
+    public double getTargetRate() {
+        long period = periodNanos;
+        return period > 0 ? 1_000_000_000.0 / period : 0;
+    }
+
+    /**
+     * Blocks until the next frame deadline and returns the wake-up time. Deadlines
+     * advance by exactly one period, so the average rate stays exact even when
+     * single frames wake a little late. After falling more than one period behind,
+     * the schedule restarts from now instead of bursting to catch up.
+     */
+    public long awaitNextFrame() {
+        long period = periodNanos;
+        long now = System.nanoTime();
+        if (period <= 0) {
+            deadline = now;
+            lastErrorNanos = 0;
+            return now;
+        }
+        if (deadline == 0) deadline = now;
+        deadline += period;
+
+        if (now - deadline > period) {
+            record(now - deadline);
+            deadline = now;
+            return now;
+        }
+
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_THRESHOLD_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+        }
+        while (System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+        now = System.nanoTime();
+        record(now - deadline);
+        return now;
+    }
+
+    /** Starts the schedule over from the next wait, e.g. after the loop was paused. */
+    public void reset() {
+        deadline = 0;
+    }
+
+    /** Wake-up time minus deadline for the last wait; positive means late. */
+    public long getLastErrorNanos() {
+        return lastErrorNanos;
+    }
+
+    /** Smoothed absolute pacing error. */
+    public double getMeanAbsErrorNanos() {
+        return meanAbsErrorNanos;
+    }
+
+    private void record(long error) {
+        lastErrorNanos = error;
+        meanAbsErrorNanos += (Math.abs(error) - meanAbsErrorNanos) * ERROR_SMOOTHING;
+    }
+}
@@ -1,26 +1,26 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
 public class Game extends Canvas implements KeyListener, MouseMotionListener {
-    private Player player;
+    // Replaced on level reset while the render and present threads are running
+    private volatile Player player;
     private double initialSpawnX;
     private double initialSpawnY;
     private Map map;
-    private Renderer renderer;
+    private volatile Renderer renderer;
     public int dots = 0;
-    private HUD hud;
+    private volatile HUD hud;
     private boolean[] keys = new boolean[256];
     private int lastMouseX;
     private Robot robot;
-    private List<Point> rayEndPoints = new ArrayList<>();
+    private MiniMap miniMap;
     private long lastTime = System.nanoTime();
     private int frames = 0;
     private int fps = 0;
@@ -28,6 +28,8 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
     private int fov = 60;
     private double mouseSensitivity = 0.001;
     private int rayResolution = 1;
+    private int renderThreads = Integer.getInteger("rays.renderThreads",
+            Runtime.getRuntime().availableProcessors());
     private int targetFOV = 60;
     private SoundManager soundManager;
 
@@ -39,12 +41,38 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
     private double stamina = 1.0;
 
     // Screenshake fields
-    private int shakeDuration = 0; // Duration of the screenshake in frames
+    private volatile int shakeDuration = 0; // Duration of the screenshake in frames
     private int shakeIntensity = 5; // Intensity of the screenshake
 
+    // Simulation runs on the thread calling start(); raycasting and presenting each
+    // get their own thread and trade finished frames through a triple buffer
+    private final FrameExchange frameExchange = new FrameExchange();
+    private final FrameMetrics metrics = new FrameMetrics();
+    private volatile CameraSnapshot camera;
+    private volatile boolean running = false;
+    private volatile boolean resetMiniMap = false;
+    private Thread renderThread, presentThread;
+
+    // Fixed simulation rate; gameplay speed no longer depends on the frame rate
+    private static final int TICK_RATE = 60;
+    private static final long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+    private static final double TICK_SECONDS = 1.0 / TICK_RATE;
+    // Longest stretch of real time simulated after a stall (avoids a catch-up spiral)
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000L;
+    private double prevX, prevY, prevAngle;
+
+    // Frame cap choices cycled from the options menu; 0 is uncapped
+    private static final int[] FRAME_CAPS = {30, 60, 120, 144, 240, 0};
+    private final FramePacer simPacer = new FramePacer(TICK_RATE);
+    private final FramePacer renderPacer = new FramePacer(Integer.getInteger("rays.targetFps", 60));
+    // Budget for dynamic resolution when the frame rate is uncapped
+    private static final long UNCAPPED_BUDGET_NANOS = 1_000_000_000L / 60;
+    private final ResolutionController resolution = new ResolutionController(
+            !"false".equals(System.getProperty("rays.dynamicResolution")));
+
     public Game() {
         soundManager = new SoundManager();
-        soundManager.playMusic("sounds/background-music2.wav");
+        soundManager.playMusic(SoundManager.BACKGROUND_MUSIC);
         String[] options = {"Create New Level", "Load Existing Level"};
         int choice = JOptionPane.showOptionDialog(
                 null,
@@ -75,82 +103,47 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
             System.exit(0);
         }
 
-        renderer = new Renderer(this, map, player);
+        renderer = new Renderer(map, metrics);
+        miniMap = new MiniMap(map);
         hud = new HUD(player, this);
         addKeyListener(this);
         addMouseMotionListener(this);
         setFocusable(true);
 
-        try { robot = new Robot(); } catch (AWTException e) { e.printStackTrace(); }
+        robot = AssetLoader.getRobot(); // created in the background since startup
     }
 
     public Game(String levelName) {
         soundManager = new SoundManager();
-        soundManager.playMusic("sounds/background-music2.wav");
+        soundManager.playMusic(SoundManager.BACKGROUND_MUSIC);
 
-        File levelFile = new File("levels", levelName + ".txt");
         try {
-            List<String> lines = Files.readAllLines(levelFile.toPath());
-            char[][] layout = new char[lines.size()][lines.get(0).length()];
-            for (int y = 0; y < lines.size(); y++) {
-                for (int x = 0; x < lines.get(y).length(); x++) {
-                    char tile = lines.get(y).charAt(x);
-                    if (tile == 'P') {
-                        player = new Player(x + 0.5, y + 0.5, 0); // Set spawn point
-                        initialSpawnX = x + 0.5;
-                        initialSpawnY = y + 0.5;
-                        layout[y][x] = '0'; // Replace spawn point with empty space
-                    } else {
-                        layout[y][x] = tile;
-                    }
-                }
-            }
-            map = new Map(layout);
+            loadLayout(LevelFile.find(levelName));
         } catch (IOException e) {
             JOptionPane.showMessageDialog(null, "Failed to load level: " + e.getMessage());
             System.exit(0);
         }
 
-        renderer = new Renderer(this, map, player);
+        renderer = new Renderer(map, metrics);
+        miniMap = new MiniMap(map);
         hud = new HUD(player, this);
         addKeyListener(this);
         addMouseMotionListener(this);
         setFocusable(true);
 
-        try { robot = new Robot(); } catch (AWTException e) { e.printStackTrace(); }
+        robot = AssetLoader.getRobot(); // created in the background since startup
     }
 
     private boolean loadLevel() {
-        File levelsDir = new File("levels");
-        if (!levelsDir.exists() || levelsDir.listFiles() == null) {
+        if (LevelFile.names().length == 0) {
             JOptionPane.showMessageDialog(null, "No levels found. Create a new level first.");
             return false;
         }
-        File[] levelFiles = levelsDir.listFiles((dir, name) -> name.endsWith(".txt"));
-        String[] levelNames = new String[levelFiles.length];
-        for (int i = 0; i < levelFiles.length; i++) {
-            levelNames[i] = levelFiles[i].getName().replace(".txt", "");
-        }
-        String sel = (String)JOptionPane.showInputDialog(
-            null, "Select a level to load:", "Load Level",
-            JOptionPane.PLAIN_MESSAGE, null, levelNames, levelNames[0]
-        );
+        // Lists the catalogue's cached metadata right away and catches up with new files behind it
+        String sel = LevelPicker.choose(LevelCatalogue.open());
         if (sel == null) return false;
         try {
-            List<String> lines = Files.readAllLines(new File(levelsDir, sel + ".txt").toPath());
-            char[][] layout = new char[lines.size()][lines.get(0).length()];
-            for (int y = 0; y < lines.size(); y++) {
-                for (int x = 0; x < lines.get(y).length(); x++) {
-                    char tile = lines.get(y).charAt(x);
-                    if (tile == 'P') {
-                        player = new Player(x + 0.5, y + 0.5, 0);
-                        layout[y][x] = '0';
-                    } else {
-                        layout[y][x] = tile;
-                    }
-                }
-            }
-            map = new Map(layout);
+            loadLayout(LevelFile.find(sel));
         } catch (IOException e) {
             JOptionPane.showMessageDialog(null, "Failed to load level: " + e.getMessage());
             System.exit(0);
@@ -158,70 +151,198 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
         return true;
     }
 
+    /** Headless setup for tests and benchmarks: no music, dialogs or mouse robot. */
+    Game(Map map, double spawnX, double spawnY) {
+        this.map = map;
+        player = new Player(spawnX, spawnY, 0);
+        initialSpawnX = spawnX;
+        initialSpawnY = spawnY;
+        renderer = new Renderer(map, metrics);
+        miniMap = new MiniMap(map);
+        hud = new HUD(player, this);
+    }
+
+    // The one loader behind both constructors; text or binary levels
+    private void loadLayout(File levelFile) throws IOException {
+        LevelFile level = LevelFile.read(levelFile);
+        map = level.map;
+        initialSpawnX = level.spawnCentreX();
+        initialSpawnY = level.spawnCentreY();
+        player = new Player(initialSpawnX, initialSpawnY, 0);
+    }
+
     public double start() {
         Point center = new Point(getWidth() / 2, getHeight() / 2);
         lastMouseX = center.x;
-        final long targetFrameTime = 1_000_000_000L / 60;
         lastTime = System.nanoTime();
         frames = 0;
 
-        while (true) {
-            long frameStart = System.nanoTime();
-            processInput();
-            player.update(map);
-
-            char currentTile = map.getTile((int) player.getX(), (int) player.getY());
-
-            if (currentTile == 'T') {
-                targetFOV = 120;
-                shakeDuration = 20; // Trigger screenshake for 20 frames
-            } else {
-                targetFOV = 60;
-            }
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        savePreviousCamera();
+        publishCamera(previous, 0);
+        startRenderThreads();
+        try {
+            while (true) {
+                // Fixed-timestep simulation: run as many ticks as real time has covered
+                long now = System.nanoTime();
+                accumulator += Math.min(now - previous, MAX_CATCH_UP_NANOS);
+                previous = now;
+                int ticks = 0;
+
+                while (accumulator >= TICK_NANOS) {
+                    accumulator -= TICK_NANOS;
+                    ticks++;
+                    savePreviousCamera();
+                    long inputStart = System.nanoTime();
+                    processInput();
+                    long updateStart = System.nanoTime();
+                    player.update(map, TICK_SECONDS);
+                    metrics.record(FrameMetrics.Stage.INPUT, updateStart - inputStart);
+                    metrics.record(FrameMetrics.Stage.UPDATE, System.nanoTime() - updateStart);
+
+                    char currentTile = map.getTile((int) player.getX(), (int) player.getY());
+
+                    if (currentTile == Tiles.FOV_TRAP) {
+                        targetFOV = 120;
+                        shakeDuration = 20; // Trigger screenshake for 20 frames
+                    } else {
+                        targetFOV = 60;
+                    }
 
-            if (currentTile == 'V') {
-                JOptionPane.showMessageDialog(null, "You fell into the void. Restarting level...");
-                resetLevelState();
-                continue; // Continue game loop from beginning
-            }
+                    if (currentTile == Tiles.VOID_TRAP) {
+                        JOptionPane.showMessageDialog(null, "You fell into the void. Restarting level...");
+                        resetLevelState();
+                        // Don't try to catch up on the time spent in the dialog
+                        previous = System.nanoTime();
+                        accumulator = 0;
+                        simPacer.reset();
+                        break;
+                    }
 
 
 // endgame  tile
-            if (currentTile == 'E') {
-                long endTime = System.nanoTime();
-                double elapsedSec = (endTime - timerStart) / 1_000_000_000.0;
-                String timeStr = String.format("%.2f", elapsedSec);
-                JOptionPane.showMessageDialog(null, "Level completed in " + timeStr + " seconds!");
-                return elapsedSec;
-            }
+                    if (currentTile == Tiles.EXIT) {
+                        long endTime = System.nanoTime();
+                        double elapsedSec = (endTime - timerStart) / 1_000_000_000.0;
+                        String timeStr = String.format("%.2f", elapsedSec);
+                        JOptionPane.showMessageDialog(null, "Level completed in " + timeStr + " seconds!");
+                        return elapsedSec;
+                    }
 
-            smoothFOVTransition();
-            render();
-            recenterMouse();
+                    smoothFOVTransition();
+                }
 
-            long now = System.nanoTime();
-            frames++;
-            if (now - lastTime >= 1_000_000_000L) {
-                fps = frames;
-                frames = 0;
-                lastTime = now;
-            }
+                if (ticks > 0) {
+                    publishCamera(previous, accumulator);
+                    recenterMouse();
+                }
 
-            long frameTime = now - frameStart;
-            if (frameTime < targetFrameTime) {
-                try { Thread.sleep((targetFrameTime - frameTime) / 1_000_000L); }
-                catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                simPacer.awaitNextFrame();
             }
+        } finally {
+            stopRenderThreads();
+            renderer.close();
         }
     }
 
     private void resetLevelState() {
         player = new Player(initialSpawnX, initialSpawnY, 0); // Reset player position and angle
+        removeKeyListener(hud);                              // Old HUD must stop reacting to keys
+        removeMouseListener(hud);
         hud = new HUD(player, this);                         // Re-initialize HUD
-        renderer = new Renderer(this, map, player);          // Re-initialize renderer
+        Renderer old = renderer;
+        renderer = new Renderer(map, metrics);               // Re-initialize renderer
+        old.close();                                         // Lets go of its textures
         timerStarted = false;                                // Reset the timer
-        dots = 0;
-        rayEndPoints.clear();
+        resetMiniMap = true;                                 // Dots are cleared on the present thread
+        savePreviousCamera();                                // No blending across the respawn
+    }
+
+    // Camera at the start of the current tick, the "from" side of render interpolation
+    private void savePreviousCamera() {
+        prevX = player.getX();
+        prevY = player.getY();
+        prevAngle = player.getAngle();
+    }
+
+    /**
+     * Hands the last two ticks' camera and the view settings to the render thread.
+     * {@code accumulator} is how far real time has run past the last tick at {@code now}.
+     */
+    private void publishCamera(long now, long accumulator) {
+        camera = new CameraSnapshot(player.getX(), player.getY(), player.getAngle(),
+                                    prevX, prevY, prevAngle,
+                                    now - accumulator, TICK_NANOS,
+                                    fov, rayResolution, renderThreads);
+        LockSupport.unpark(renderThread);
+    }
+
+    private void startRenderThreads() {
+        running = true;
+        renderThread = new Thread(this::renderLoop, "render");
+        presentThread = new Thread(this::presentLoop, "present");
+        renderThread.setDaemon(true);
+        presentThread.setDaemon(true);
+        renderThread.start();
+        presentThread.start();
+    }
+
+    private void stopRenderThreads() {
+        running = false;
+        LockSupport.unpark(renderThread);
+        LockSupport.unpark(presentThread);
+        try {
+            renderThread.join();
+            presentThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Render thread: raycast the interpolated camera into the back frame. Frames
+    // are not tied to ticks; once a snapshot is fully blended in, wait for the next.
+    private void renderLoop() {
+        CameraSnapshot last = null;
+        long lastRenderTime = 0;
+        while (running) {
+            int w = getWidth(), h = getHeight();
+            if (w <= 0 || h <= 0) {
+                LockSupport.parkNanos(10_000_000L); // Canvas not laid out yet
+                continue;
+            }
+            CameraSnapshot cam = camera;
+            if (cam == last && cam.isSettled(lastRenderTime)) {
+                LockSupport.park(); // Woken by publishCamera()
+                continue;
+            }
+            long now = renderPacer.awaitNextFrame();
+            RenderFrame frame = frameExchange.backFrame();
+            // Internal resolution and ray stride come from the dynamic resolution controller
+            frame.prepare(resolution.scaled(w), resolution.scaled(h),
+                          cam.interpolate(now, cam.rayResolution + resolution.getExtraStride()));
+            long renderStart = System.nanoTime();
+            renderer.renderFrame(frame);
+            double rate = renderPacer.getTargetRate();
+            resolution.update(System.nanoTime() - renderStart,
+                              rate > 0 ? (long) (1e9 / rate) : UNCAPPED_BUDGET_NANOS);
+            frameExchange.publish();
+            LockSupport.unpark(presentThread);
+            last = cam;
+            lastRenderTime = now;
+        }
+    }
+
+    // Present thread: draw HUD and minimap over the newest frame and show it
+    private void presentLoop() {
+        while (running) {
+            RenderFrame frame = frameExchange.takeLatest();
+            if (frame == null) {
+                LockSupport.park(); // Woken by the render thread
+                continue;
+            }
+            present(frame);
+        }
     }
 
 
@@ -248,7 +369,7 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
         if (keys[KeyEvent.VK_D]) player.strafeRight(map);
     }
 
-    private void render() {
+    private void present(RenderFrame frame) {
         BufferStrategy bs = getBufferStrategy();
         if (bs == null) { createBufferStrategy(3); return; }
         Graphics g = bs.getDrawGraphics();
@@ -261,11 +382,36 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
             shakeDuration--;
         }
 
-        renderer.render(g);
+        long blitStart = System.nanoTime();
+        BufferedImage image = frame.getImage();
+        int w = getWidth(), h = getHeight();
+        if (image.getWidth() == w && image.getHeight() == h) {
+            g.drawImage(image, 0, 0, null);
+        } else {
+            // Reduced internal resolution: nearest-neighbour upscale to the canvas
+            g.drawImage(image, 0, 0, w, h, null);
+        }
+        long hudStart = System.nanoTime();
         hud.render(g, fps);
-        renderMiniMap(g);
+        long miniMapStart = System.nanoTime();
+        renderMiniMap(g, frame.getHits());
+        long showStart = System.nanoTime();
         g.dispose();
         bs.show();
+        long shown = System.nanoTime();
+
+        metrics.record(FrameMetrics.Stage.HUD, miniMapStart - hudStart);
+        metrics.record(FrameMetrics.Stage.MINIMAP, showStart - miniMapStart);
+        metrics.record(FrameMetrics.Stage.PRESENT, (hudStart - blitStart) + (shown - showStart));
+        metrics.endFrame();
+
+        long now = System.nanoTime();
+        frames++;
+        if (now - lastTime >= 1_000_000_000L) {
+            fps = frames;
+            frames = 0;
+            lastTime = now;
+        }
     }
 
     private void recenterMouse() {
@@ -276,60 +422,18 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
         lastMouseX = center.x;
     }
 
-    private void renderMiniMap(Graphics g) {
-        int miniMapSize = Math.min(getWidth(), getHeight())/5;
-        int tileSize = miniMapSize / map.getWidth();
-        int offsetX = (getWidth()-miniMapSize)/2;
-        int offsetY = getHeight()-miniMapSize-10;
-
-        for (int y = 0; y < map.getHeight(); y++) {
-            for (int x = 0; x < map.getWidth(); x++) {
-                char t = map.getTile(x, y);
-                if (map.isWall(x, y)) {
-                    g.setColor(Color.LIGHT_GRAY); // Set wall color to match empty fields
-                    g.fillRect(offsetX + x * tileSize, offsetY + y * tileSize, tileSize, tileSize);
-                    continue;
-                }
-                if (t == 'T') g.setColor(Color.BLUE);
-                else if (t == 'E') g.setColor(Color.RED);
-                else g.setColor(Color.LIGHT_GRAY);
-                g.fillRect(offsetX + x * tileSize, offsetY + y * tileSize, tileSize, tileSize);
-            }
-        }
-
-        int pX = offsetX + (int)(player.getX()*tileSize);
-        int pY = offsetY + (int)(player.getY()*tileSize);
-        g.setColor(Color.RED);
-        g.fillOval(pX-3, pY-3, 6, 6);
-
-        g.setColor(Color.YELLOW);
-        for (int i=-30; i<=30; i++) {
-            double angle = player.getAngle()+Math.toRadians(i);
-            double dx = Math.cos(angle), dy = Math.sin(angle), dist=0;
-            while (true) {
-                dist+=0.1;
-                int tx=(int)(player.getX()+dx*dist);
-                int ty=(int)(player.getY()+dy*dist);
-                if (tx<0||tx>=map.getWidth()||ty<0||ty>=map.getHeight()||map.isWall(tx,ty)) {
-                    int ex=offsetX+(int)((player.getX()+dx*dist)*tileSize);
-                    int ey=offsetY+(int)((player.getY()+dy*dist)*tileSize);
-                    g.drawLine(pX,pY,ex,ey);
-                    Point ep=new Point(ex,ey);
-                    if (!rayEndPoints.contains(ep)) {
-                        rayEndPoints.add(ep);
-                        dots++;
-                    }
-                    break;
-                }
-            }
-        }
-
-        g.setColor(Color.BLACK);
-        for (Point pt: rayEndPoints) {
-            g.fillOval(pt.x-1, pt.y-1, 2, 2);
+    /** Draws the minimap, with rays and lidar dots taken from the frame's raycast hits. */
+    void renderMiniMap(Graphics g, RayHits hits) {
+        if (resetMiniMap) {
+            resetMiniMap = false;
+            miniMap.clearDots();
+            dots = 0;
         }
+        dots += miniMap.render(g, getWidth(), getHeight(), player.getX(), player.getY(), hits);
     }
 
+    public MiniMap getMiniMap() { return miniMap; }
+
     public void setSpawnPoint(double x, double y) {
         if (player == null) player = new Player(x,y,0);
         else player = new Player(x,y,player.getAngle());
@@ -350,6 +454,26 @@ public class Game extends Canvas implements KeyListener, MouseMotionListener {
     public void adjustRayResolution(int d){
         rayResolution = Math.max(1, rayResolution + d);
     }
+    public int getRenderThreads()     { return renderThreads; }
+    /** Cycles 1..availableProcessors so the menu can step back down to single-threaded. */
+    public void cycleRenderThreads(){
+        int max = Math.max(renderThreads, Runtime.getRuntime().availableProcessors());
+        renderThreads = renderThreads % max + 1;
+    }
+    /** Render frame cap in frames per second, 0 when uncapped. */
+    public int getFrameCap()          { return (int) Math.round(renderPacer.getTargetRate()); }
+    public void cycleFrameCap(){
+        int current = getFrameCap(), next = FRAME_CAPS[0];
+        for (int i = 0; i < FRAME_CAPS.length; i++) {
+            if (FRAME_CAPS[i] == current) next = FRAME_CAPS[(i + 1) % FRAME_CAPS.length];
+        }
+        renderPacer.setTargetRate(next);
+    }
+    /** Per-stage frame timings shown by the HUD overlay. */
+    public FrameMetrics getMetrics()  { return metrics; }
+    /** Pacer driving the render thread; exposes its own pacing error. */
+    public FramePacer getRenderPacer() { return renderPacer; }
+    public ResolutionController getResolution() { return resolution; }
     public void exitToMapSelection() {
         JOptionPane.showMessageDialog(null, "Returning to map selection...");
         System.exit(0);
@@ -3,6 +3,12 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 public class HUD implements KeyListener, MouseListener {
     private final Player player;
@@ -10,6 +16,25 @@ public class HUD implements KeyListener, MouseListener {
     private boolean isMenuOpen = false;
     private boolean isOptionsMenuOpen = false;
 
+    // Frame metrics overlay (F3); text is rebuilt twice a second, not every frame
+    private static final long OVERLAY_REFRESH_NANOS = 500_000_000L;
+    private static final Font METRICS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color METRICS_BACKGROUND = new Color(0, 0, 0, 170);
+    private volatile boolean showMetrics = false;
+    private String[] metricsLines = new String[0];
+    private long metricsRefreshed = 0;
+
+    private static final Font PLAIN_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font BOLD_FONT  = new Font("Arial", Font.BOLD, 20);
+
+    // In-game HUD lines, each reformatted only when the value it shows changes.
+    // Position is keyed as x and y in hundredths of a tile, the time in hundredths of a second.
+    private final HudText positionText = new HudText((t, key) -> t.append("Position: (")
+            .appendFixed(key >> 32, 2).append(", ").appendFixed((int) key, 2).append(")"));
+    private final HudText dotsText = new HudText((t, dots) -> t.append("Dots [minimap Lidar]: ").appendNumber(dots));
+    private final HudText fpsText  = new HudText((t, fps) -> t.append("FPS: ").appendNumber(fps));
+    private final HudText timeText = new HudText((t, time) -> t.append("Time: ").appendFixed(time, 2).append("s"));
+
     public HUD(Player player, Game game) {
         this.player = player;
         this.game = game;
@@ -35,33 +60,71 @@ public class HUD implements KeyListener, MouseListener {
             g.setColor(Color.BLACK);
             g.drawRect(bx, by, barW, barH);
 
-            // ● Position & dots
+            // ● Position, dots & elapsed time (plain lines first: each font switch costs a lookup)
             g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.PLAIN, 20));
-            g.drawString("Position: (" + player.getX() + ", " + player.getY() + ")", 10, 30);
-            g.drawString("Dots [minimap Lidar]: " + game.dots, 10, 50);
+            long hx = Math.round(player.getX() * 100), hy = Math.round(player.getY() * 100);
+            positionText.draw(g, PLAIN_FONT, 10, 30, hx << 32 | (hy & 0xFFFFFFFFL));
+            dotsText.draw(g, PLAIN_FONT, 10, 50, game.dots);
+            timeText.draw(g, PLAIN_FONT, 10, 90, Math.round(game.getElapsedTime() * 100));
 
             // ● FPS
-            g.setFont(new Font("Arial", Font.BOLD, 20));
-            g.drawString("FPS: " + fps, 10, 70);
-
-            // ● Elapsed time
-            g.setFont(new Font("Arial", Font.PLAIN, 20));
-            g.drawString("Time: " + String.format("%.2f", game.getElapsedTime()) + "s", 10, 90);
+            fpsText.draw(g, BOLD_FONT, 10, 70, fps);
 
             // ● Crosshair
             int cx = game.getWidth()/2, cy = game.getHeight()/2, len = 8;
             g.setColor(Color.RED);
             g.drawLine(cx - len, cy, cx + len, cy);
             g.drawLine(cx, cy - len, cx, cy + len);
+
+            if (showMetrics) renderMetrics(g);
         }
     }
 
+    private void renderMetrics(Graphics g) {
+        long now = System.nanoTime();
+        if (now - metricsRefreshed > OVERLAY_REFRESH_NANOS) {
+            String[] summary = game.getMetrics().summaryLines();
+            String[] assets = AssetLoader.assets().summaryLines();
+            String[] lines = new String[summary.length + 1 + assets.length];
+            System.arraycopy(summary, 0, lines, 0, summary.length);
+            lines[summary.length] = String.format("pacing: \u00b1%.3f ms",
+                    game.getRenderPacer().getMeanAbsErrorNanos() / 1e6);
+            System.arraycopy(assets, 0, lines, summary.length + 1, assets.length);
+            metricsLines = lines;
+            metricsRefreshed = now;
+        }
+        int lineH = 15, w = 300, h = metricsLines.length * lineH + 10;
+        int x = game.getWidth() - w - 10, y = 10;
+        g.setColor(METRICS_BACKGROUND);
+        g.fillRect(x, y, w, h);
+        g.setColor(Color.WHITE);
+        g.setFont(METRICS_FONT);
+        for (int i = 0; i < metricsLines.length; i++) {
+            g.drawString(metricsLines[i], x + 6, y + 17 + i * lineH);
+        }
+    }
+
+    // Runs off the EDT so the file write never stalls input handling
+    private void exportMetrics() {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File dir = new File("metrics", stamp);
+        new Thread(() -> {
+            try {
+                File written = game.getMetrics().exportCsv(dir);
+                AssetLoader.assets().exportCsv(dir);
+                System.out.println("Frame metrics written to " + written.getAbsolutePath());
+            } catch (IOException ex) {
+                SwingUtilities.invokeLater(() ->
+                    JOptionPane.showMessageDialog(null, "Failed to export metrics: " + ex.getMessage()));
+            }
+        }, "metrics-export").start();
+    }
+
     private void renderMenu(Graphics g) {
         g.setColor(Color.GRAY);
         g.fillRect(100, 100, 300, 250);
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 20));
+        g.setFont(BOLD_FONT);
         g.drawString("Resume",               150, 150);
         g.drawString("Options",              150, 200);
         g.drawString("Exit to Map Selection",150, 250);
@@ -69,14 +132,22 @@ public class HUD implements KeyListener, MouseListener {
 
     private void renderOptionsMenu(Graphics g) {
         g.setColor(Color.GRAY);
-        g.fillRect(100, 100, 300, 320);
+        g.fillRect(100, 100, 300, 440);
         g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 20));
+        g.setFont(BOLD_FONT);
         g.drawString("Options Menu",                  140, 130);
         g.drawString("FOV: " + game.getFOV(),         140, 180);
         g.drawString("Mouse Sensitivity: " + game.getMouseSensitivity(), 140, 220);
         g.drawString("Wall Resolution: " + game.getRayResolution(),      140, 260);
-        g.drawString("Back",                          140, 300);
+        g.drawString("Render Threads: " + game.getRenderThreads(),       140, 300);
+        int cap = game.getFrameCap();
+        g.drawString("Frame Cap: " + (cap > 0 ? String.valueOf(cap) : "Uncapped")
+                     + String.format(" \u00b1%.2fms", game.getRenderPacer().getMeanAbsErrorNanos() / 1e6),
+                     140, 340);
+        ResolutionController res = game.getResolution();
+        g.drawString("Dynamic Res: " + (res.isEnabled()
+                     ? res.getScalePercent() + "% +" + res.getExtraStride() : "Off"), 140, 380);
+        g.drawString("Back",                          140, 420);
     }
 
     @Override
@@ -89,6 +160,20 @@ public class HUD implements KeyListener, MouseListener {
             case KeyEvent.VK_SHIFT:
                 player.setSpeedBoost(true);
                 break;
+            case KeyEvent.VK_F3:
+                showMetrics = !showMetrics;
+                break;
+            case KeyEvent.VK_F4:
+                exportMetrics();
+                break;
+            case KeyEvent.VK_EQUALS:
+            case KeyEvent.VK_ADD:
+                game.getMiniMap().zoomIn();
+                break;
+            case KeyEvent.VK_MINUS:
+            case KeyEvent.VK_SUBTRACT:
+                game.getMiniMap().zoomOut();
+                break;
         }
     }
 
@@ -134,6 +219,15 @@ public class HUD implements KeyListener, MouseListener {
                     // Adjust Wall Resolution
                     game.adjustRayResolution(10);
                 } else if (y >= 280 && y <= 320) {
+                    // Cycle raycast worker threads
+                    game.cycleRenderThreads();
+                } else if (y >= 320 && y <= 360) {
+                    // Cycle render frame cap
+                    game.cycleFrameCap();
+                } else if (y >= 360 && y <= 400) {
+                    // Toggle dynamic resolution
+                    game.getResolution().setEnabled(!game.getResolution().isEnabled());
+                } else if (y >= 400 && y <= 440) {
                     // Back to main menu
                     isOptionsMenuOpen = false;
                 }
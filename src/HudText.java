@@ -0,0 +1,70 @@
+import java.awt.Font;
+import java.awt.Graphics;
+
+/**
+ * One line of HUD text held in a reused char buffer. The line is described by a
+ * single long key (a value, or several packed together) and is reformatted only
+ * when the key changes; drawing goes through Graphics.drawChars, which renders
+ * from Java2D's glyph cache without building a String. Numbers are formatted
+ * digit by digit, so neither path allocates.
+ *
+ * Not thread-safe: each instance belongs to the thread that draws it.
+ */
+public class HudText {
+    /** Rebuilds the line for a new key using the append methods. */
+    public interface Formatter {
+        void format(HudText text, long key);
+    }
+
+    private final Formatter formatter;
+    private final char[] chars = new char[64];
+    private final char[] digits = new char[20];
+    private int length;
+    private long key;
+    private boolean formatted = false;
+
+    public HudText(Formatter formatter) {
+        this.formatter = formatter;
+    }
+
+    /** Draws the line with its baseline at y, reformatting it first if the key changed. */
+    public void draw(Graphics g, Font font, int x, int y, long key) {
+        if (!formatted || key != this.key) {
+            length = 0;
+            formatter.format(this, key);
+            this.key = key;
+            formatted = true;
+        }
+        g.setFont(font);
+        g.drawChars(chars, 0, length, x, y);
+    }
+
+    public HudText append(String s) {
+        int n = Math.min(s.length(), chars.length - length);
+        s.getChars(0, n, chars, length);
+        length += n;
+        return this;
+    }
+
+    public HudText appendNumber(long value) {
+        return appendFixed(value, 0);
+    }
+
+    /** Appends value / 10^decimals with exactly that many digits after the point. */
+    public HudText appendFixed(long value, int decimals) {
+        if (value < 0) {
+            append("-");
+            value = -value;
+        }
+        int n = 0;
+        do {
+            if (n == decimals && decimals > 0) digits[n++] = '.';
+            digits[n++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0 || n <= decimals);
+        while (n > 0 && length < chars.length) {
+            chars[length++] = digits[--n];
+        }
+        return this;
+    }
+}
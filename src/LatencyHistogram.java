@@ -0,0 +1,67 @@
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of durations in nanoseconds. Each power of two is split
+ * into 8 sub-buckets, so any recorded value is reported within about 12% while
+ * the whole range up to hours fits in a fixed 512-slot array. Recording is a
+ * couple of shifts and an increment, cheap enough to do several times a frame.
+ *
+ * Not synchronized: each histogram is meant to have a single writer thread.
+ * Readers on other threads may see a slightly stale view, which is fine for
+ * statistics.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long total, sum, max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[index(nanos)]++;
+        total++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = sum = max = 0;
+    }
+
+    public long getCount()   { return total; }
+    public long getMax()     { return max; }
+    public double getMean()  { return total == 0 ? 0 : (double) sum / total; }
+
+    /** Value at the given percentile (0-100), or 0 when nothing was recorded. */
+    public long percentile(double percent) {
+        long n = total;
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Middle of the bucket, never above the largest value seen
+                long mid = (lowerBound(i) + lowerBound(i + 1) - 1) / 2;
+                return Math.min(mid, max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exp = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exp = (index >> SUB_BITS) + SUB_BITS - 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        return (long) (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+    }
+}
@@ -0,0 +1,33 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinBucketResolution() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            h.record(v * 1_000L); // 1 us .. 10 ms
+        }
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000L, h.getMax());
+        assertEquals(5_000_000L, h.percentile(50), 5_000_000L * 0.125);
+        assertEquals(9_900_000L, h.percentile(99), 9_900_000L * 0.125);
+        assertEquals(10_000_000L, h.percentile(100), 10_000_000L * 0.125);
+    }
+
+    @Test
+    void testBucketsAreContiguous() {
+        for (int i = 0; i < 400; i++) {
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i)));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.lowerBound(i + 1) - 1));
+        }
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentile(99));
+        assertEquals(0.0, h.getMean());
+    }
+}
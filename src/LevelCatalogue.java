@@ -0,0 +1,352 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Persistent index of the levels in levels/: per level its size, spawn, exit
+ * count, a SHA-256 of the file and a small thumbnail, so the level picker can
+ * list, sort and filter thousands of levels without opening any of them.
+ *
+ * {@link #refresh()} brings the index up to date incrementally. Files whose size
+ * and modification time match their entry are skipped; the rest are hashed, and
+ * only those whose content changed are read again. Those reads (thumbnails
+ * included) run in parallel. Where a level exists in both formats the one
+ * LevelFile.find() would load (the newer) is indexed, so a hand edit of the text
+ * file switches the entry over to it.
+ *
+ * Layout of levels/catalogue.idx (little-endian): magic, version, entry count,
+ * then per entry its file name (length-prefixed UTF-8), file size, modification
+ * time, width, height, spawn x and y, exit count, 32-byte hash, thumbnail width
+ * and height and one palette index per thumbnail pixel.
+ */
+public class LevelCatalogue {
+    public static final File INDEX_FILE = new File(LevelFile.LEVELS_DIR, "catalogue.idx");
+    /** Longer side of a thumbnail in pixels; one pixel per tile sampled. */
+    public static final int THUMB_SIZE = 48;
+    private static final int MAGIC = 0x54414352; // "RCAT"
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+
+    // Thumbnail palette, in the editor's colours: floor, the wall codes, spawn,
+    // FOV trap, void trap, exit
+    private static final int FLOOR = 0, SPAWN = 6, FOV_TRAP = 7, VOID_TRAP = 8, EXIT = 9;
+    private static final IndexColorModel PALETTE;
+
+    static {
+        Color[] colors = new Color[10];
+        colors[FLOOR] = Color.LIGHT_GRAY;
+        System.arraycopy(MapEditor.WALL_COLORS, 0, colors, 1, MapEditor.WALL_COLORS.length);
+        colors[SPAWN] = Color.GREEN;
+        colors[FOV_TRAP] = Color.BLUE;
+        colors[VOID_TRAP] = Color.BLACK;
+        colors[EXIT] = Color.RED;
+        byte[] r = new byte[colors.length], g = new byte[colors.length], b = new byte[colors.length];
+        for (int i = 0; i < colors.length; i++) {
+            r[i] = (byte) colors[i].getRed();
+            g[i] = (byte) colors[i].getGreen();
+            b[i] = (byte) colors[i].getBlue();
+        }
+        PALETTE = new IndexColorModel(8, colors.length, r, g, b);
+    }
+
+    /** What the catalogue knows about one level. */
+    public static final class Entry {
+        /** Level name, as passed to LevelFile.find(). */
+        public final String name;
+        final String fileName;
+        final long fileSize;
+        final long modified;
+        public final int width, height;
+        /** Spawn tile, or -1, -1 if the level has none. */
+        public final int spawnX, spawnY;
+        public final int exitCount;
+        final byte[] hash;
+        final int thumbWidth, thumbHeight;
+        final byte[] thumbPixels;
+
+        Entry(String fileName, long fileSize, long modified, int width, int height, int spawnX, int spawnY,
+              int exitCount, byte[] hash, int thumbWidth, int thumbHeight, byte[] thumbPixels) {
+            this.name = fileName.substring(0, fileName.lastIndexOf('.'));
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.modified = modified;
+            this.width = width;
+            this.height = height;
+            this.spawnX = spawnX;
+            this.spawnY = spawnY;
+            this.exitCount = exitCount;
+            this.hash = hash;
+            this.thumbWidth = thumbWidth;
+            this.thumbHeight = thumbHeight;
+            this.thumbPixels = thumbPixels;
+        }
+
+        // The same level with a new file stamp, for files touched but not changed
+        Entry restamped(long fileSize, long modified) {
+            return new Entry(fileName, fileSize, modified, width, height, spawnX, spawnY,
+                    exitCount, hash, thumbWidth, thumbHeight, thumbPixels);
+        }
+
+        /** Modification time of the level file, in milliseconds since the epoch. */
+        public long getModified() {
+            return modified;
+        }
+
+        /** SHA-256 of the level file, in hex. */
+        public String getHash() {
+            StringBuilder hex = new StringBuilder(HASH_BYTES * 2);
+            for (byte b : hash) hex.append(String.format("%02x", b));
+            return hex.toString();
+        }
+
+        /** The thumbnail as a fresh indexed-colour image. */
+        public BufferedImage thumbnail() {
+            BufferedImage image = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_BYTE_INDEXED, PALETTE);
+            byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            // One byte per pixel: the raster's rows are exactly thumbWidth long
+            System.arraycopy(thumbPixels, 0, pixels, 0, thumbPixels.length);
+            return image;
+        }
+    }
+
+    private final File dir;
+    private final File indexFile;
+    // Keyed by level name
+    private final HashMap<String, Entry> entries = new HashMap<>();
+
+    private LevelCatalogue(File dir, File indexFile) {
+        this.dir = dir;
+        this.indexFile = indexFile;
+    }
+
+    /** The catalogue of levels/ as last indexed; call refresh() to catch up with the files. */
+    public static LevelCatalogue open() {
+        return open(LevelFile.LEVELS_DIR, INDEX_FILE);
+    }
+
+    static LevelCatalogue open(File dir, File indexFile) {
+        LevelCatalogue catalogue = new LevelCatalogue(dir, indexFile);
+        try {
+            catalogue.read();
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            // Rebuilt by the next refresh
+            System.err.println("Ignoring corrupt level catalogue " + indexFile + ": " + e);
+            catalogue.entries.clear();
+        }
+        return catalogue;
+    }
+
+    /** Every indexed level, by name. */
+    public synchronized List<Entry> entries() {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparing(entry -> entry.name));
+        return list;
+    }
+
+    /**
+     * Re-indexes levels added or changed since the last refresh, drops removed ones
+     * and saves the index if anything changed. Returns the number of levels read.
+     * Levels that fail to read are left out (and logged) until they are fixed.
+     */
+    public int refresh() throws IOException {
+        HashMap<String, File> files = new HashMap<>();
+        for (String name : names()) files.put(name, LevelFile.find(dir, name));
+
+        List<String> staleNames = new ArrayList<>();
+        List<Callable<Entry>> stale = new ArrayList<>();
+        boolean changed;
+        synchronized (this) {
+            changed = entries.keySet().retainAll(files.keySet());
+            for (java.util.Map.Entry<String, File> named : files.entrySet()) {
+                File file = named.getValue();
+                Entry old = entries.get(named.getKey());
+                long size = file.length(), modified = file.lastModified();
+                if (old != null && old.fileName.equals(file.getName())
+                        && old.fileSize == size && old.modified == modified) continue;
+                staleNames.add(named.getKey());
+                stale.add(() -> index(file, size, modified, old));
+            }
+        }
+        int read = 0;
+        if (!stale.isEmpty()) {
+            ExecutorService pool = Executors.newFixedThreadPool(
+                    Math.min(stale.size(), Runtime.getRuntime().availableProcessors()));
+            try {
+                List<Future<Entry>> results = pool.invokeAll(stale);
+                for (int i = 0; i < results.size(); i++) {
+                    Entry entry;
+                    try {
+                        entry = results.get(i).get();
+                    } catch (ExecutionException e) {
+                        System.err.println("Skipping level " + staleNames.get(i) + ": " + e.getCause());
+                        synchronized (this) {
+                            entries.remove(staleNames.get(i));
+                        }
+                        continue;
+                    }
+                    synchronized (this) {
+                        Entry old = entries.put(entry.name, entry);
+                        // Same hash: only the file's stamp changed
+                        if (old == null || !Arrays.equals(old.hash, entry.hash)) read++;
+                    }
+                }
+                changed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while indexing levels", e);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        if (changed) write();
+        return read;
+    }
+
+    // Level names in the directory, each once whatever its formats
+    private String[] names() {
+        File[] list = dir.listFiles((d, name) -> name.endsWith(LevelFile.TEXT_SUFFIX)
+                || name.endsWith(LevelFile.BINARY_SUFFIX));
+        if (list == null) return new String[0];
+        return Arrays.stream(list)
+                .map(file -> file.getName().substring(0, file.getName().lastIndexOf('.')))
+                .distinct().toArray(String[]::new);
+    }
+
+    // Reads one level unless only its stamp changed; runs on the refresh pool
+    private static Entry index(File file, long size, long modified, Entry old) throws IOException {
+        byte[] hash = hash(file);
+        if (old != null && old.fileName.equals(file.getName()) && Arrays.equals(old.hash, hash)) {
+            return old.restamped(size, modified);
+        }
+        LevelFile level = LevelFile.read(file);
+        Map map = level.map;
+        int w = map.getWidth(), h = map.getHeight();
+        int tw = w >= h ? THUMB_SIZE : Math.max(1, (int) ((long) THUMB_SIZE * w / h));
+        int th = h >= w ? THUMB_SIZE : Math.max(1, (int) ((long) THUMB_SIZE * h / w));
+        // One sampled tile per pixel, so huge (disk-backed) levels only page in what is sampled
+        byte[] pixels = new byte[tw * th];
+        for (int py = 0; py < th; py++) {
+            int y = (int) ((py * 2L + 1) * h / (th * 2L));
+            for (int px = 0; px < tw; px++) {
+                int x = (int) ((px * 2L + 1) * w / (tw * 2L));
+                pixels[py * tw + px] = paletteIndex(map.getTile(x, y));
+            }
+        }
+        // Exits and the spawn would mostly fall between samples; mark them on top
+        for (int i = 0; i < level.exits.length; i += 2) {
+            pixels[(int) ((long) level.exits[i + 1] * th / h) * tw + (int) ((long) level.exits[i] * tw / w)] = EXIT;
+        }
+        if (level.spawnX >= 0) {
+            pixels[(int) ((long) level.spawnY * th / h) * tw + (int) ((long) level.spawnX * tw / w)] = SPAWN;
+        }
+        return new Entry(file.getName(), size, modified, w, h, level.spawnX, level.spawnY,
+                level.exits.length / 2, hash, tw, th, pixels);
+    }
+
+    private static byte paletteIndex(char tile) {
+        int wallId = Tiles.textureId(tile);
+        if (wallId >= 0) return (byte) (1 + wallId);
+        switch (tile) {
+            case Tiles.SPAWN: return SPAWN;
+            case Tiles.FOV_TRAP: return FOV_TRAP;
+            case Tiles.VOID_TRAP: return VOID_TRAP;
+            case Tiles.EXIT: return EXIT;
+            default: return FLOOR;
+        }
+    }
+
+    private static byte[] hash(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                sha.update(buffer);
+                buffer.clear();
+            }
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+
+    private synchronized void read() throws IOException {
+        if (!indexFile.isFile()) return;
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 12 || in.getInt() != MAGIC || in.getInt() != VERSION) return;
+        for (int count = in.getInt(); count > 0; count--) {
+            byte[] name = new byte[in.getShort() & 0xFFFF];
+            in.get(name);
+            long fileSize = in.getLong(), modified = in.getLong();
+            int width = in.getInt(), height = in.getInt(), spawnX = in.getInt(), spawnY = in.getInt();
+            int exitCount = in.getInt();
+            byte[] hash = new byte[HASH_BYTES];
+            in.get(hash);
+            int thumbWidth = in.getShort() & 0xFFFF, thumbHeight = in.getShort() & 0xFFFF;
+            byte[] pixels = new byte[thumbWidth * thumbHeight];
+            in.get(pixels);
+            Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), fileSize, modified, width, height,
+                    spawnX, spawnY, exitCount, hash, thumbWidth, thumbHeight, pixels);
+            entries.put(entry.name, entry);
+        }
+    }
+
+    // Written to a temporary file and moved over the old index, like the texture cache
+    private synchronized void write() throws IOException {
+        long size = 12;
+        List<byte[]> names = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            byte[] name = entry.fileName.getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 + name.length + 16 + 20 + HASH_BYTES + 4 + entry.thumbPixels.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+        int i = 0;
+        for (Entry entry : entries.values()) {
+            byte[] name = names.get(i++);
+            out.putShort((short) name.length).put(name);
+            out.putLong(entry.fileSize).putLong(entry.modified);
+            out.putInt(entry.width).putInt(entry.height).putInt(entry.spawnX).putInt(entry.spawnY);
+            out.putInt(entry.exitCount).put(entry.hash);
+            out.putShort((short) entry.thumbWidth).putShort((short) entry.thumbHeight).put(entry.thumbPixels);
+        }
+        out.flip();
+
+        Files.createDirectories(dir.toPath());
+        Path target = indexFile.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "catalogue", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) channel.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class LevelCatalogueTest {
+    @TempDir
+    Path dir;
+
+    private File level(String name, String... rows) throws Exception {
+        File file = dir.resolve(name + LevelFile.TEXT_SUFFIX).toFile();
+        Files.write(file.toPath(), (String.join("\n", rows) + "\n").getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private LevelCatalogue open() {
+        return LevelCatalogue.open(dir.toFile(), dir.resolve("catalogue.idx").toFile());
+    }
+
+    @Test
+    void testIndexesLevelsAndSkipsUnchangedOnes() throws Exception {
+        level("alpha", "11111", "1P0E1", "11111");
+        File beta = level("beta", "1111111111", "10000000E1", "1E000000P1", "1111111111");
+
+        LevelCatalogue catalogue = open();
+        assertEquals(2, catalogue.refresh());
+        List<LevelCatalogue.Entry> entries = catalogue.entries();
+        assertEquals("alpha", entries.get(0).name);
+        assertEquals(5, entries.get(0).width);
+        assertEquals(3, entries.get(0).height);
+        assertEquals(1, entries.get(0).spawnX);
+        assertEquals(1, entries.get(0).exitCount);
+        assertEquals(2, entries.get(1).exitCount);
+        BufferedImage thumb = entries.get(1).thumbnail();
+        assertEquals(LevelCatalogue.THUMB_SIZE, thumb.getWidth());
+        assertEquals(LevelCatalogue.THUMB_SIZE * 4 / 10, thumb.getHeight());
+
+        // Reopened from the index: nothing to read, same metadata
+        LevelCatalogue reopened = open();
+        assertEquals(entries.get(1).getHash(), reopened.entries().get(1).getHash());
+        assertEquals(0, reopened.refresh());
+
+        // Touched without changes: hashed, not read again
+        assertTrue(beta.setLastModified(beta.lastModified() - 10_000));
+        assertEquals(0, reopened.refresh());
+
+        level("beta", "1111", "1P01", "1111");
+        assertTrue(beta.setLastModified(beta.lastModified() + 10_000));
+        assertTrue(new File(dir.toFile(), "alpha.txt").delete());
+        assertEquals(1, reopened.refresh());
+        entries = open().entries();
+        assertEquals(1, entries.size());
+        assertEquals(4, entries.get(0).width);
+        assertEquals(0, entries.get(0).exitCount);
+    }
+}
@@ -0,0 +1,304 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * A level read from disk: its map, spawn tile and exits. Every way of opening a
+ * level goes through {@link #read(File)}, which takes either format:
+ *
+ * Text (.txt): one line per row, one byte per tile code, 'P' marking the spawn.
+ * Parsed in one pass over the file's bytes.
+ *
+ * Binary (.lvl, little-endian): magic, version, width, height, spawn x and y (-1
+ * if none), exit count, CRC32 of the payload, the exits as x, y pairs, then the
+ * tiles in ChunkedTileStore's chunk-ordered payload layout with the spawn tile
+ * stored as empty floor. The payload is memory-mapped: small levels are copied
+ * into a flat Map after checking the CRC, larger ones are paged straight from the
+ * file (unchecked, since checking would read every page).
+ *
+ * {@code java LevelFile [level.txt ...]} converts text levels to binary ones
+ * (every text level in levels/ without arguments).
+ */
+public final class LevelFile {
+    public static final File LEVELS_DIR = new File("levels");
+    public static final String TEXT_SUFFIX = ".txt";
+    public static final String BINARY_SUFFIX = ".lvl";
+    private static final int MAGIC = 0x4C564C52; // "RLVL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int CRC_OFFSET = 28;
+    // Binary levels with more tiles than this are paged from the file (-Drays.flatLevelTiles=N)
+    private static final long FLAT_MAX_TILES = Long.getLong("rays.flatLevelTiles", 1L << 24);
+
+    public final Map map;
+    /** Spawn tile, or -1, -1 if the level has none. */
+    public final int spawnX, spawnY;
+    /** Exit tiles, x and y interleaved. */
+    public final int[] exits;
+
+    private LevelFile(Map map, int spawnX, int spawnY, int[] exits) {
+        this.map = map;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.exits = exits;
+    }
+
+    /** Reads a text or binary level, by its suffix. */
+    public static LevelFile read(File file) throws IOException {
+        return read(file, FLAT_MAX_TILES);
+    }
+
+    static LevelFile read(File file, long flatMaxTiles) throws IOException {
+        return file.getName().endsWith(BINARY_SUFFIX) ? readBinary(file, flatMaxTiles) : readText(file);
+    }
+
+    /** The file for a level name in levels/; see {@link #find(File, String)}. */
+    public static File find(String name) {
+        return find(LEVELS_DIR, name);
+    }
+
+    /**
+     * The file for a level name in dir. If both formats exist the newer one wins, so
+     * a text level edited by hand after saving is not shadowed by its stale binary;
+     * on a tie (the editor writes both) the binary one.
+     */
+    static File find(File dir, String name) {
+        File binary = new File(dir, name + BINARY_SUFFIX);
+        File text = new File(dir, name + TEXT_SUFFIX);
+        if (!binary.isFile()) return text;
+        if (!text.isFile()) return binary;
+        return text.lastModified() > binary.lastModified() ? text : binary;
+    }
+
+    /** Names of the levels in levels/, sorted, each once whatever its formats. */
+    public static String[] names() {
+        TreeSet<String> names = new TreeSet<>();
+        File[] files = LEVELS_DIR.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(TEXT_SUFFIX) || name.endsWith(BINARY_SUFFIX)) {
+                    names.add(name.substring(0, name.lastIndexOf('.')));
+                }
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    /** Centre of the spawn tile, or of tile (1, 1) if there is none. */
+    public double spawnCentreX() {
+        return (spawnX >= 0 ? spawnX : 1) + 0.5;
+    }
+
+    public double spawnCentreY() {
+        return (spawnY >= 0 ? spawnY : 1) + 0.5;
+    }
+
+    private static LevelFile readText(File file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // First pass sizes the map: rows end at '\n' (a '\r' before it is dropped),
+        // shorter rows are padded with empty floor
+        int width = 0, height = 0;
+        for (int start = 0; start < bytes.length; height++) {
+            int end = lineEnd(bytes, start);
+            width = Math.max(width, rowLength(bytes, start, end));
+            start = end + 1;
+        }
+        if (width == 0) throw new IOException("Empty level: " + file);
+
+        Map map = new Map(width, height);
+        int spawnX = -1, spawnY = -1;
+        int[] exits = new int[16];
+        int exitCount = 0;
+        for (int y = 0, start = 0; y < height; y++) {
+            int end = lineEnd(bytes, start);
+            int length = rowLength(bytes, start, end);
+            for (int x = 0, i = start; x < length; x++, i++) {
+                if (bytes[i] == Tiles.PLAYER) {
+                    spawnX = x;
+                    spawnY = y;
+                    bytes[i] = (byte) Tiles.EMPTY;
+                } else if (bytes[i] == Tiles.EXIT) {
+                    if (exitCount == exits.length) exits = Arrays.copyOf(exits, exitCount * 2);
+                    exits[exitCount++] = x;
+                    exits[exitCount++] = y;
+                }
+            }
+            map.setTiles(0, y, bytes, start, length);
+            start = end + 1;
+        }
+        return new LevelFile(map, spawnX, spawnY, Arrays.copyOf(exits, exitCount));
+    }
+
+    private static int lineEnd(byte[] bytes, int start) {
+        int end = start;
+        while (end < bytes.length && bytes[end] != '\n') end++;
+        return end;
+    }
+
+    private static int rowLength(byte[] bytes, int start, int end) {
+        return end > start && bytes[end - 1] == '\r' ? end - start - 1 : end - start;
+    }
+
+    private static LevelFile readBinary(File file, long flatMaxTiles) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException("Not a level file: " + file);
+            // One mapping for header, exits and (for flat levels) the payload; pages are
+            // only read as they are touched, so mapping past what is used costs nothing
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            ByteBuffer header = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) throw new IOException("Not a level file: " + file);
+            if (header.getInt() != VERSION) throw new IOException("Unsupported level file version: " + file);
+            int width = header.getInt(), height = header.getInt();
+            int spawnX = header.getInt(), spawnY = header.getInt();
+            int exitCount = header.getInt(), crc = header.getInt();
+            if (width <= 0 || height <= 0) throw new IOException("Bad level size " + width + "x" + height);
+            if (exitCount < 0 || exitCount > (mapped.capacity() - HEADER_BYTES) / 8) {
+                throw new IOException("Bad exit count " + exitCount + " in " + file);
+            }
+
+            int[] exits = new int[exitCount * 2];
+            header.asIntBuffer().get(exits);
+            long payloadOffset = HEADER_BYTES + exitCount * 8L;
+            long payloadBytes = ChunkedTileStore.payloadBytes(width, height);
+            if (size < payloadOffset + payloadBytes) throw new IOException("Level file truncated: " + file);
+
+            Map map;
+            if ((long) width * height > flatMaxTiles || payloadOffset + payloadBytes > mapped.capacity()) {
+                map = new Map(ChunkedTileStore.open(channel, payloadOffset, width, height, false));
+            } else {
+                ByteBuffer payload = mapped.slice((int) payloadOffset, (int) payloadBytes);
+                CRC32 check = new CRC32();
+                check.update(payload.duplicate());
+                if ((int) check.getValue() != crc) throw new IOException("Level file checksum mismatch: " + file);
+                map = unpack(payload, width, height);
+            }
+            return new LevelFile(map, spawnX, spawnY, exits);
+        }
+    }
+
+    // Copies a chunk-ordered payload into a flat map, a chunk at a time
+    private static Map unpack(ByteBuffer payload, int width, int height) {
+        int chunk = ChunkedTileStore.CHUNK, shift = ChunkedTileStore.CHUNK_SHIFT;
+        int chunksX = (width + chunk - 1) >> shift, chunksY = (height + chunk - 1) >> shift;
+        Map map = new Map(width, height);
+        byte[] tiles = new byte[ChunkedTileStore.CHUNK_BYTES];
+        for (int cy = 0; cy < chunksY; cy++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                payload.get((cy * chunksX + cx) * ChunkedTileStore.CHUNK_BYTES, tiles);
+                int x0 = cx << shift, columns = Math.min(chunk, width - x0);
+                for (int ly = 0, y = cy << shift; ly < chunk && y < height; ly++, y++) {
+                    map.setTiles(x0, y, tiles, ly << shift, columns);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Writes a binary level; the tile at the spawn (if x, y is not -1) is saved as
+     * empty floor. Goes through a temporary file, so a failed save never leaves half
+     * a level behind.
+     */
+    public static void write(File file, Map map, int spawnX, int spawnY) throws IOException {
+        int width = map.getWidth(), height = map.getHeight();
+        int[] exits = new int[16];
+        int exitCount = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (map.getTile(x, y) == Tiles.EXIT) {
+                    if (exitCount == exits.length) exits = Arrays.copyOf(exits, exitCount * 2);
+                    exits[exitCount++] = x;
+                    exits[exitCount++] = y;
+                }
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + exitCount * 4).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+              .putInt(spawnX).putInt(spawnY).putInt(exitCount / 2).putInt(0);
+        for (int i = 0; i < exitCount; i++) header.putInt(exits[i]);
+        header.flip();
+
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "level", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (header.hasRemaining()) channel.write(header);
+                int crc = ChunkedTileStore.writePayload(channel, width, height,
+                        (x, y) -> x == spawnX && y == spawnY ? Tiles.EMPTY : map.getTile(x, y));
+                ByteBuffer crcBytes = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(crc);
+                crcBytes.flip();
+                channel.write(crcBytes, CRC_OFFSET);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a text level, marking the spawn (if x, y is not -1) with 'P'. Rows go
+     * out through a buffer, through a temporary file like {@link #write}.
+     */
+    public static void writeText(File file, Map map, int spawnX, int spawnY) throws IOException {
+        int width = map.getWidth(), height = map.getHeight();
+        byte[] row = new byte[width + 1];
+        row[width] = '\n';
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "level", ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        row[x] = x == spawnX && y == spawnY ? (byte) Tiles.PLAYER : (byte) map.getTile(x, y);
+                    }
+                    out.write(row);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Converts a text level to a binary one next to it; returns the new file. */
+    public static File convert(File textFile) throws IOException {
+        LevelFile level = readText(textFile);
+        String name = textFile.getName();
+        int dot = name.lastIndexOf('.');
+        File binary = new File(textFile.getAbsoluteFile().getParentFile(),
+                (dot > 0 ? name.substring(0, dot) : name) + BINARY_SUFFIX);
+        write(binary, level.map, level.spawnX, level.spawnY);
+        return binary;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File[] files;
+        if (args.length > 0) {
+            files = new File[args.length];
+            for (int i = 0; i < args.length; i++) files[i] = new File(args[i]);
+        } else {
+            files = LEVELS_DIR.listFiles((dir, name) -> name.endsWith(TEXT_SUFFIX));
+            if (files == null) files = new File[0];
+        }
+        for (File file : files) {
+            long start = System.nanoTime();
+            File binary = convert(file);
+            System.out.printf("Wrote %s (%d KB) in %d ms%n", binary,
+                    binary.length() / 1024, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
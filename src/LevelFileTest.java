@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class LevelFileTest {
+    @TempDir
+    Path dir;
+
+    // 70 columns so the binary payload has a partial chunk; CRLF and a short row
+    private File writeText() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int y = 0; y < 5; y++) {
+            for (int x = 0; x < (y == 3 ? 40 : 70); x++) {
+                text.append(x == 0 || x == 69 || y == 0 || y == 4 ? '1' : '0');
+            }
+            if (y == 2) text.setCharAt(text.length() - 5, 'E');
+            if (y == 1) text.setCharAt(text.length() - 60, 'P');
+            text.append(y == 1 ? "\r\n" : "\n");
+        }
+        File file = dir.resolve("level.txt").toFile();
+        Files.write(file.toPath(), text.toString().getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    @Test
+    void testBinaryLevelMatchesTextLevel() throws Exception {
+        LevelFile text = LevelFile.read(writeText());
+        assertEquals(70, text.map.getWidth());
+        assertEquals(5, text.map.getHeight());
+        assertEquals(10, text.spawnX);
+        assertEquals(1, text.spawnY);
+        assertEquals(Tiles.EMPTY, text.map.getTile(10, 1));
+        assertArrayEquals(new int[]{65, 2}, text.exits);
+
+        File binaryFile = LevelFile.convert(dir.resolve("level.txt").toFile());
+        // Small and flat, then paged through the chunk store
+        for (long flatMax : new long[]{Long.MAX_VALUE, 0}) {
+            LevelFile binary = LevelFile.read(binaryFile, flatMax);
+            assertEquals(flatMax == 0, binary.map.chunkStore() != null);
+            assertEquals(text.spawnX, binary.spawnX);
+            assertEquals(text.spawnY, binary.spawnY);
+            assertArrayEquals(text.exits, binary.exits);
+            for (int y = 0; y < 5; y++) {
+                for (int x = 0; x < 70; x++) {
+                    assertEquals(text.map.getTile(x, y), binary.map.getTile(x, y), x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTextLevelRoundTrips() throws Exception {
+        LevelFile original = LevelFile.read(writeText());
+        File copy = dir.resolve("copy.txt").toFile();
+        LevelFile.writeText(copy, original.map, original.spawnX, original.spawnY);
+        LevelFile reread = LevelFile.read(copy);
+        assertEquals(original.spawnX, reread.spawnX);
+        assertEquals(original.spawnY, reread.spawnY);
+        assertArrayEquals(original.exits, reread.exits);
+        assertArrayEquals(original.map.getMapLayout(), reread.map.getMapLayout());
+    }
+
+    @Test
+    void testHandEditedTextWinsOverStaleBinary() throws Exception {
+        LevelFile original = LevelFile.read(writeText());
+        File text = dir.resolve("level.txt").toFile();
+        File binary = dir.resolve("level" + LevelFile.BINARY_SUFFIX).toFile();
+        LevelFile.write(binary, original.map, original.spawnX, original.spawnY);
+        assertEquals(binary, LevelFile.find(dir.toFile(), "level"));
+
+        Files.write(text.toPath(), "111\n1P1\n111\n".getBytes(StandardCharsets.US_ASCII));
+        assertTrue(text.setLastModified(binary.lastModified() + 10_000));
+        File found = LevelFile.find(dir.toFile(), "level");
+        assertEquals(text, found);
+        LevelFile loaded = LevelFile.read(found);
+        assertEquals(3, loaded.map.getWidth());
+        assertEquals(1, loaded.spawnX);
+    }
+
+    @Test
+    void testCorruptPayloadIsRejected() throws Exception {
+        File binaryFile = LevelFile.convert(writeText());
+        try (RandomAccessFile file = new RandomAccessFile(binaryFile, "rw")) {
+            file.seek(file.length() - 1);
+            file.write('2');
+        }
+        IOException e = assertThrows(IOException.class, () -> LevelFile.read(binaryFile));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+}
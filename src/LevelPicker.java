@@ -0,0 +1,210 @@
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Level chooser over the LevelCatalogue: a table of thumbnails and metadata,
+ * sorted by clicking a column header and filtered by name as you type.
+ *
+ * It opens with the catalogue as last saved and refreshes it in the background,
+ * so thousands of levels show at once and new or edited ones appear when indexed.
+ */
+public class LevelPicker extends JDialog {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"", "Name", "Width", "Height", "Exits", "Modified"};
+
+    private final LevelCatalogue catalogue;
+    private final Model model = new Model();
+    private final JTable table = new JTable(model);
+    private final TableRowSorter<Model> sorter = new TableRowSorter<>(model);
+    private final JTextField filter = new JTextField(20);
+    private final JLabel status = new JLabel();
+    private String chosen;
+
+    // One table row; the thumbnail icon is built once per entry
+    private static final class Row {
+        final LevelCatalogue.Entry entry;
+        final ImageIcon thumbnail;
+
+        Row(LevelCatalogue.Entry entry) {
+            this.entry = entry;
+            this.thumbnail = new ImageIcon(entry.thumbnail());
+        }
+    }
+
+    private static final class Model extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private List<Row> rows = new ArrayList<>();
+
+        void setEntries(List<LevelCatalogue.Entry> entries) {
+            List<Row> next = new ArrayList<>(entries.size());
+            for (LevelCatalogue.Entry entry : entries) next.add(new Row(entry));
+            rows = next;
+            fireTableDataChanged();
+        }
+
+        LevelCatalogue.Entry entry(int row) {
+            return rows.get(row).entry;
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            switch (column) {
+                case 0: return Icon.class;
+                case 1: return String.class;
+                case 5: return Date.class;
+                default: return Integer.class;
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Row r = rows.get(row);
+            switch (column) {
+                case 0: return r.thumbnail;
+                case 1: return r.entry.name;
+                case 2: return r.entry.width;
+                case 3: return r.entry.height;
+                case 4: return r.entry.exitCount;
+                default: return new Date(r.entry.getModified());
+            }
+        }
+    }
+
+    private LevelPicker(LevelCatalogue catalogue) {
+        super((JFrame) null, "Load Level", true);
+        this.catalogue = catalogue;
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        table.setRowSorter(sorter);
+        table.setRowHeight(LevelCatalogue.THUMB_SIZE + 4);
+        table.getColumnModel().getColumn(0).setPreferredWidth(LevelCatalogue.THUMB_SIZE + 4);
+        table.getColumnModel().getColumn(1).setPreferredWidth(200);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        sorter.setSortable(0, false);
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) choose();
+            }
+        });
+
+        filter.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("Filter:"));
+        top.add(filter);
+        top.add(status);
+
+        JButton load = new JButton("Load");
+        load.addActionListener(e -> choose());
+        JButton cancel = new JButton("Cancel");
+        cancel.addActionListener(e -> dispose());
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(load);
+        buttons.add(cancel);
+        getRootPane().setDefaultButton(load);
+
+        add(top, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        setSize(560, 480);
+        setLocationRelativeTo(null);
+
+        showEntries(catalogue.entries());
+        status.setText(status.getText() + " (checking for changes...)");
+    }
+
+    /**
+     * Shows the picker and waits for a choice; returns the level name, or null if
+     * the player cancelled.
+     */
+    public static String choose(LevelCatalogue catalogue) {
+        String[] result = new String[1];
+        Runnable show = () -> {
+            LevelPicker picker = new LevelPicker(catalogue);
+            picker.refreshInBackground();
+            picker.setVisible(true); // modal: returns once the dialog is closed
+            result[0] = picker.chosen;
+        };
+        try {
+            if (SwingUtilities.isEventDispatchThread()) show.run();
+            else SwingUtilities.invokeAndWait(show);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return result[0];
+    }
+
+    private void refreshInBackground() {
+        Thread indexer = new Thread(() -> {
+            try {
+                catalogue.refresh();
+                SwingUtilities.invokeLater(() -> showEntries(catalogue.entries()));
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> status.setText("Failed to index levels: " + e.getMessage()));
+            }
+        }, "level-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    private void showEntries(List<LevelCatalogue.Entry> entries) {
+        String selected = selectedName();
+        model.setEntries(entries);
+        status.setText(entries.size() + " levels");
+        for (int row = 0; row < table.getRowCount(); row++) {
+            if (model.entry(table.convertRowIndexToModel(row)).name.equals(selected)) {
+                table.setRowSelectionInterval(row, row);
+                return;
+            }
+        }
+        if (table.getRowCount() > 0) table.setRowSelectionInterval(0, 0);
+    }
+
+    private void applyFilter() {
+        String text = filter.getText().trim();
+        sorter.setRowFilter(text.isEmpty() ? null
+                : RowFilter.regexFilter("(?i)" + Pattern.quote(text), 1));
+    }
+
+    private String selectedName() {
+        int row = table.getSelectedRow();
+        return row < 0 ? null : model.entry(table.convertRowIndexToModel(row)).name;
+    }
+
+    private void choose() {
+        chosen = selectedName();
+        if (chosen != null) dispose();
+    }
+}
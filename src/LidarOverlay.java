@@ -0,0 +1,141 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Accumulated lidar dots of the minimap. Dots are keyed in world space, RES
+ * cells per tile, so the count does not depend on window size or zoom, and
+ * "seen before?" is a single bit test.
+ *
+ * The world is split into pages of 64x64 cells, allocated only once a dot lands
+ * in them. They sit in one flat array indexed by page, or on huge maps (where
+ * that array alone would be megabytes) in per-row arrays allocated as rows are
+ * reached. Each page also keeps an image of its dots at the current display
+ * scale: a new dot is painted into it once, and the minimap just blits the
+ * visible pages. A scale change repaints a page from its bits the next time it
+ * is drawn.
+ */
+public class LidarOverlay {
+    /** Dot cells per tile edge. */
+    public static final int RES = 8;
+    private static final int PAGE_SHIFT = 6;
+    private static final int PAGE_CELLS = 1 << PAGE_SHIFT;
+    private static final int DOT_COLOR = 0xFF000000;
+    // Maps with fewer pages than this (a 1024x1024-tile map has 128x128) index one flat array
+    private static final int FLAT_MAX_PAGES = 1 << 20;
+
+    private static final class Page {
+        final long[] bits = new long[PAGE_CELLS * PAGE_CELLS / 64];
+        BufferedImage image;
+    }
+
+    private final int cellsW, cellsH, pagesX, pagesY;
+    // Pages at py * pagesX + px; null on huge maps, which use rows instead
+    private final Page[] pages;
+    // Per page row, allocated on its first dot; null unless the map is huge
+    private final Page[][] rows;
+    private int tilePx;
+
+    public LidarOverlay(int mapWidth, int mapHeight) {
+        // Hits can land exactly on the far map edge, hence the extra cell
+        cellsW = mapWidth * RES + 1;
+        cellsH = mapHeight * RES + 1;
+        pagesX = (cellsW + PAGE_CELLS - 1) >> PAGE_SHIFT;
+        pagesY = (cellsH + PAGE_CELLS - 1) >> PAGE_SHIFT;
+        boolean flat = (long) pagesX * pagesY < FLAT_MAX_PAGES;
+        pages = flat ? new Page[pagesX * pagesY] : null;
+        rows = flat ? null : new Page[pagesY][];
+    }
+
+    // The page at (px, py); null if it has no dots, unless create is set
+    private Page page(int px, int py, boolean create) {
+        Page[] row;
+        int index;
+        if (pages != null) {
+            row = pages;
+            index = py * pagesX + px;
+        } else {
+            row = rows[py];
+            if (row == null) {
+                if (!create) return null;
+                row = rows[py] = new Page[pagesX];
+            }
+            index = px;
+        }
+        Page page = row[index];
+        if (page == null && create) page = row[index] = new Page();
+        return page;
+    }
+
+    /** Records a dot at world position (x, y). Returns true if the cell had no dot yet. */
+    public boolean add(double x, double y) {
+        int cx = Math.max(0, Math.min(cellsW - 1, (int) (x * RES)));
+        int cy = Math.max(0, Math.min(cellsH - 1, (int) (y * RES)));
+        Page page = page(cx >> PAGE_SHIFT, cy >> PAGE_SHIFT, true);
+        long[] pageBits = page.bits;
+        int bit = (cy & (PAGE_CELLS - 1)) << PAGE_SHIFT | (cx & (PAGE_CELLS - 1));
+        long mask = 1L << bit;
+        if ((pageBits[bit >>> 6] & mask) != 0) return false;
+        pageBits[bit >>> 6] |= mask;
+        if (page.image != null) paintDot(page.image, bit);
+        return true;
+    }
+
+    public void clear() {
+        if (pages != null) Arrays.fill(pages, null);
+        else Arrays.fill(rows, null);
+    }
+
+    /**
+     * Draws the dots of tiles [tx0, tx1) x [ty0, ty1) at tilePx pixels per tile,
+     * with world (0, 0) at (originX, originY).
+     */
+    public void draw(Graphics g, int originX, int originY, int tilePx,
+                     int tx0, int ty0, int tx1, int ty1) {
+        if (tilePx != this.tilePx) {
+            for (int py = 0; py < pagesY; py++) {
+                for (int px = 0; px < pagesX; px++) {
+                    Page page = page(px, py, false);
+                    if (page != null) page.image = null;
+                }
+            }
+            this.tilePx = tilePx;
+        }
+        int pageTiles = PAGE_CELLS / RES, pagePx = pageTiles * tilePx;
+        int px0 = Math.max(0, tx0 / pageTiles), px1 = Math.min(pagesX, (tx1 + pageTiles - 1) / pageTiles);
+        int py0 = Math.max(0, ty0 / pageTiles), py1 = Math.min(pagesY, (ty1 + pageTiles - 1) / pageTiles);
+        for (int py = py0; py < py1; py++) {
+            for (int px = px0; px < px1; px++) {
+                Page page = page(px, py, false);
+                if (page == null) continue;
+                if (page.image == null) page.image = paintPage(page.bits, pagePx);
+                BufferedImage image = page.image;
+                // Page images have a 1px border so dots on the page edge are not cut
+                g.drawImage(image, originX + px * pagePx - 1, originY + py * pagePx - 1, null);
+            }
+        }
+    }
+
+    private BufferedImage paintPage(long[] pageBits, int pagePx) {
+        BufferedImage image = new BufferedImage(pagePx + 2, pagePx + 2, BufferedImage.TYPE_INT_ARGB);
+        for (int w = 0; w < pageBits.length; w++) {
+            long word = pageBits[w];
+            while (word != 0) {
+                paintDot(image, w * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return image;
+    }
+
+    // 2x2 dot centred on the cell's position at display scale, like the old fillOval(x-1, y-1, 2, 2)
+    private void paintDot(BufferedImage image, int bit) {
+        int cx = bit & (PAGE_CELLS - 1), cy = bit >>> PAGE_SHIFT;
+        int x = (int) ((cx + 0.5) * tilePx / RES), y = (int) ((cy + 0.5) * tilePx / RES);
+        for (int dy = 0; dy < 2; dy++) {
+            for (int dx = 0; dx < 2; dx++) {
+                image.setRGB(x + dx, y + dy, DOT_COLOR);
+            }
+        }
+    }
+}
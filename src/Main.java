@@ -6,8 +6,9 @@ public class Main {
     private static final int HEIGHT = 600;
 
     public static void main(String[] args) {
+        // Textures, music and the mouse robot load while the players use the editor
+        AssetLoader.start();
         JFrame frame = new JFrame("Java Raycaster Game");
-        TextureLoader.loadTextures();
 
         double player1Time = 0;
         double player2Time = 0;
@@ -1,24 +1,105 @@
 // This file defines the tile-based map structure. It includes methods to load the map layout, check for wall collisions, and provide information about the map tiles.
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * The level grid, stored flat: one byte per tile code, row-major, with a one-tile
+ * border of walls around the map. Wall occupancy is also kept as a bitset over
+ * the same padded grid, so the raycaster's DDA and collision checks test a single
+ * bit and never need bounds checks: any ray or step leaving the map runs into the
+ * border first.
+ *
+ * Cell indices are padded: cell(x, y) = (y + 1) * getStride() + x + 1.
+ *
+ * Maps too large for the heap are backed by a ChunkedTileStore instead; then
+ * tileCells() and wallCells() are null and every read goes through the store.
+ */
 public class Map {
-    private final char[][] mapLayout;
+    // Tile code of the padding around the map; a wall of the first texture
+    private static final byte BORDER = (byte) Tiles.WALL;
+    // 1 for each byte tile code that is a wall, for bulk loads
+    private static final byte[] WALL_BIT = new byte[256];
+
+    static {
+        for (int code = 0; code < WALL_BIT.length; code++) {
+            if (Tiles.isWall((char) code)) WALL_BIT[code] = 1;
+        }
+    }
+
     private final int width;
     private final int height;
+    private final int stride;
+    private final byte[] tiles;
+    private final long[] walls;
+    // Non-null for disk-backed maps, which have no flat arrays
+    private final ChunkedTileStore store;
+    // Bumped by setTile so cached views of the layout (minimap) know to rebuild
+    private volatile int version;
 
+    /** Empty map, all tiles '\0' (open floor). */
+    public Map(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2;
+        int cells = stride * (height + 2);
+        this.tiles = new byte[cells];
+        this.walls = new long[(cells + 63) >>> 6];
+        this.store = null;
+        for (int x = -1; x <= width; x++) {
+            setCell(x, -1, BORDER);
+            setCell(x, height, BORDER);
+        }
+        for (int y = 0; y < height; y++) {
+            setCell(-1, y, BORDER);
+            setCell(width, y, BORDER);
+        }
+    }
+
+    /** Copies a char[][] layout; rows shorter than the first are padded with '\0'. */
     public Map(char[][] layout) {
-        this.mapLayout = layout;
-        this.width = layout[0].length;
-        this.height = layout.length;
+        this(layout[0].length, layout.length);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < Math.min(width, layout[y].length); x++) {
+                setCell(x, y, (byte) layout[y][x]);
+            }
+        }
+    }
+
+    /** Disk-backed map over a chunk store; tiles are paged in as they are read. */
+    public Map(ChunkedTileStore store) {
+        this.width = store.getWidth();
+        this.height = store.getHeight();
+        this.stride = 0;
+        this.tiles = null;
+        this.walls = null;
+        this.store = store;
+    }
+
+    /** Opens a chunk file (see ChunkedTileStore) as a disk-backed map. */
+    public static Map open(File chunkFile) throws IOException {
+        return new Map(ChunkedTileStore.open(chunkFile));
+    }
+
+    private void setCell(int x, int y, byte tile) {
+        int cell = (y + 1) * stride + x + 1;
+        tiles[cell] = tile;
+        long bit = 1L << cell;
+        if (Tiles.isWall((char) (tile & 0xFF))) walls[cell >>> 6] |= bit;
+        else walls[cell >>> 6] &= ~bit;
     }
 
     public boolean isWall(int x, int y) {
-        if (x < 0 || x >= width || y < 0 || y >= height) {
-            return true; // Treat out-of-bounds as walls
+        if (store != null) return store.isWall(x, y);
+        // Unsigned compares: the border (x or y of -1 or the size) is in the bitset,
+        // anything further out is a wall too
+        if (Integer.compareUnsigned(x + 1, stride) >= 0 || Integer.compareUnsigned(y + 1, height + 2) >= 0) {
+            return true;
         }
-        return mapLayout[y][x] == '1'; // Assuming '1' represents a wall
+        int cell = (y + 1) * stride + x + 1;
+        return (walls[cell >>> 6] & (1L << cell)) != 0;
     }
 
     public int getWidth() {
@@ -29,11 +110,35 @@ public class Map {
         return height;
     }
 
+    /** Padded row length of the cell arrays: width + 2. */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Tile codes of the padded grid, indexed by cell, or null for a disk-backed map.
+     * Shared, not a copy: readers on other threads see edits as they happen. Never
+     * write to it; use setTile.
+     */
+    byte[] tileCells() {
+        return tiles;
+    }
+
+    /** Wall bits of the padded grid, bit (cell & 63) of word cell >>> 6. Shared like tileCells(). */
+    long[] wallCells() {
+        return walls;
+    }
+
+    /** The chunk store of a disk-backed map, otherwise null. */
+    ChunkedTileStore chunkStore() {
+        return store;
+    }
+
     public List<int[]> getExitPoints() {
         List<int[]> exits = new ArrayList<>();
         for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
-                if (mapLayout[y][x] == 'E') { // Assuming 'E' represents an exit
+                if (getTile(x, y) == Tiles.EXIT) {
                     exits.add(new int[]{x, y});
                 }
             }
@@ -41,11 +146,62 @@ public class Map {
         return exits;
     }
 
+    /**
+     * The layout as a fresh char[][] copy, for code that still wants rows of chars.
+     * Not for disk-backed maps of any size: it holds every tile on the heap.
+     */
     public char[][] getMapLayout() {
-        return mapLayout;
+        char[][] layout = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                layout[y][x] = getTile(x, y);
+            }
+        }
+        return layout;
     }
 
+    /** The tile code at (x, y); throws IndexOutOfBoundsException outside the map, border included. */
     public char getTile(int x, int y) {
-        return mapLayout[y][x];
+        if (Integer.compareUnsigned(x, width) >= 0 || Integer.compareUnsigned(y, height) >= 0) {
+            throw new IndexOutOfBoundsException("Tile " + x + "," + y + " outside " + width + "x" + height);
+        }
+        if (store != null) return store.getTile(x, y);
+        return (char) (tiles[(y + 1) * stride + x + 1] & 0xFF);
+    }
+
+    /** Changes one tile. Edits must go through here to be seen by caches. */
+    public void setTile(int x, int y, char tile) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Tile " + x + "," + y + " outside " + width + "x" + height);
+        }
+        if (store != null) store.setTile(x, y, tile);
+        else setCell(x, y, (byte) tile);
+        version++;
+    }
+
+    /**
+     * Copies {@code length} tile codes from {@code src} into row y from column x on,
+     * for loaders filling a fresh map. Flat maps only.
+     */
+    void setTiles(int x, int y, byte[] src, int offset, int length) {
+        if (x < 0 || length < 0 || x + length > width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Tiles " + x + ".." + (x + length) + "," + y + " outside " + width + "x" + height);
+        }
+        int cell = (y + 1) * stride + x + 1, end = cell + length;
+        System.arraycopy(src, offset, tiles, cell, length);
+        // Wall bits are gathered a word at a time and stored once per word
+        for (int i = offset; cell < end; ) {
+            int word = cell >>> 6, stop = Math.min(end, (word + 1) << 6);
+            long mask = -1L >>> (64 - (stop - cell)) << cell;
+            long bits = 0;
+            for (; cell < stop; cell++, i++) bits |= (long) WALL_BIT[src[i] & 0xFF] << cell;
+            walls[word] = walls[word] & ~mask | bits;
+        }
+        version++;
+    }
+
+    /** Changes whenever a tile is set. */
+    public int getVersion() {
+        return version;
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,13 @@ import java.awt.event.*;
 import java.io.*;
 
 public class MapEditor extends JFrame {
+    // Wall brushes, parallel to Tiles.WALL_CODES, and their colours in the editor grid
+    private static final String[] WALL_BRUSHES = {"Wall", "Wall 2", "Wall 3", "Wall 4", "Wall 5"};
+    // Also the level catalogue's thumbnail colours
+    static final Color[] WALL_COLORS = {
+            Color.DARK_GRAY, new Color(0x8B4513), new Color(0xA0522D), new Color(0x556B2F), new Color(0x483D8B)
+    };
+
     private Map map;
     private Game game;
     private boolean spawnPointSet = false;
@@ -24,10 +31,11 @@ public class MapEditor extends JFrame {
 
         JPanel buttonPanel = new JPanel();
 
-        // Brush chooser dropdown (added Win Point)
-        JComboBox<String> brushChooser = new JComboBox<>(new String[]{
-                "Wall", "Spawn Point", "FOV Trap", "Endgame Trap", "Void Trap", "Erase"
-        });
+        // Brush chooser dropdown: one wall brush per wall texture, then the markers
+        JComboBox<String> brushChooser = new JComboBox<>(WALL_BRUSHES);
+        for (String brush : new String[]{"Spawn Point", "FOV Trap", "Endgame Trap", "Void Trap", "Erase"}) {
+            brushChooser.addItem(brush);
+        }
         brushChooser.addActionListener(e -> selectedBrush = (String) brushChooser.getSelectedItem());
         buttonPanel.add(new JLabel("Brush:"));
         buttonPanel.add(brushChooser);
@@ -84,24 +92,15 @@ public class MapEditor extends JFrame {
             return;
         }
 
-        File levelsDir = new File("levels");
+        File levelsDir = LevelFile.LEVELS_DIR;
         if (!levelsDir.exists()) levelsDir.mkdir();
 
-        File levelFile = new File(levelsDir, levelName + ".txt");
-        try (FileWriter writer = new FileWriter(levelFile)) {
-            char[][] layout = map.getMapLayout();
-            for (int y = 0; y < map.getHeight(); y++) {
-                for (int x = 0; x < map.getWidth(); x++) {
-                    if (x == spawnX && y == spawnY) {
-                        writer.write('P');
-                    } else {
-                        writer.write(layout[y][x]);
-                    }
-                }
-                writer.write("\n");
-            }
+        // Text for reading and editing by hand, binary next to it for fast loading
+        try {
+            LevelFile.writeText(new File(levelsDir, levelName + LevelFile.TEXT_SUFFIX), map, spawnX, spawnY);
+            LevelFile.write(new File(levelsDir, levelName + LevelFile.BINARY_SUFFIX), map, spawnX, spawnY);
             // Reset spawn marker in layout
-            map.getMapLayout()[spawnY][spawnX] = '0';
+            map.setTile(spawnX, spawnY, Tiles.EMPTY);
             JOptionPane.showMessageDialog(this, "Level saved successfully!");
             dispose();
         } catch (IOException ex) {
@@ -122,7 +121,7 @@ public class MapEditor extends JFrame {
                     int y = e.getY() / tileSize;
                     handleBrush(x, y);
                     // Prepare for drag painting on wall/erase
-                    if ("Wall".equals(selectedBrush)) {
+                    if (wallCode(selectedBrush) != 0) {
                         isDragging = true;
                         isErasing = false;
                     } else if ("Erase".equals(selectedBrush)) {
@@ -144,9 +143,9 @@ public class MapEditor extends JFrame {
                     int x = e.getX() / tileSize;
                     int y = e.getY() / tileSize;
                     if (isErasing) {
-                        paintTile(x, y, '0');
+                        paintTile(x, y, Tiles.EMPTY);
                     } else {
-                        paintTile(x, y, '1');
+                        paintTile(x, y, wallCode(selectedBrush));
                     }
                 }
             });
@@ -154,19 +153,21 @@ public class MapEditor extends JFrame {
 
         private void handleBrush(int x, int y) {
             if (x < 0 || x >= map.getWidth() || y < 0 || y >= map.getHeight()) return;
+            char wall = wallCode(selectedBrush);
+            if (wall != 0) {
+                paintTile(x, y, wall);
+                return;
+            }
             switch (selectedBrush) {
-                case "Wall":
-                    paintTile(x, y, '1');
-                    break;
                 case "Spawn Point":
-                    if (map.getTile(x, y) != '1') {
+                    if (!Tiles.isWall(map.getTile(x, y))) {
                         if (spawnPointSet) {
-                            map.getMapLayout()[spawnY][spawnX] = '0';
+                            map.setTile(spawnX, spawnY, Tiles.EMPTY);
                         }
                         spawnX = x;
                         spawnY = y;
                         spawnPointSet = true;
-                        map.getMapLayout()[y][x] = 'S';
+                        map.setTile(x, y, Tiles.SPAWN);
                         if (game != null) {
                             game.setSpawnPoint(x + 0.5, y + 0.5);
                         }
@@ -174,23 +175,31 @@ public class MapEditor extends JFrame {
                     }
                     break;
                 case "FOV Trap":
-                    paintTile(x, y, 'T');
+                    paintTile(x, y, Tiles.FOV_TRAP);
                     break;
                 case "Endgame Trap":
-                    paintTile(x, y, 'E');
+                    paintTile(x, y, Tiles.EXIT);
                     break;
                 case "Void Trap":
-                    paintTile(x, y, 'V');
+                    paintTile(x, y, Tiles.VOID_TRAP);
                     break;
                 case "Erase":
-                    paintTile(x, y, '0');
+                    paintTile(x, y, Tiles.EMPTY);
                     break;
             }
         }
 
+        // Tile code a wall brush paints, or 0 for the other brushes
+        private char wallCode(String brush) {
+            for (int i = 0; i < WALL_BRUSHES.length; i++) {
+                if (WALL_BRUSHES[i].equals(brush)) return Tiles.WALL_CODES[i];
+            }
+            return 0;
+        }
+
         private void paintTile(int x, int y, char tileType) {
             if (x >= 0 && x < map.getWidth() && y >= 0 && y < map.getHeight() && map.getTile(x, y) != tileType) {
-                map.getMapLayout()[y][x] = tileType;
+                map.setTile(x, y, tileType);
                 repaint();
             }
         }
@@ -201,12 +210,14 @@ public class MapEditor extends JFrame {
             for (int y = 0; y < map.getHeight(); y++) {
                 for (int x = 0; x < map.getWidth(); x++) {
                     char tile = map.getTile(x, y);
+                    int wallId = Tiles.textureId(tile);
+                    if (wallId >= 0) tile = Tiles.WALL;
                     switch (tile) {
-                        case '1': g.setColor(Color.DARK_GRAY); break;
-                        case 'S': g.setColor(Color.GREEN); break;
-                        case 'T': g.setColor(Color.BLUE); break;
-                        case 'V': g.setColor(Color.BLACK); break;
-                        case 'E': g.setColor(Color.RED); break;
+                        case Tiles.WALL: g.setColor(WALL_COLORS[wallId]); break;
+                        case Tiles.SPAWN: g.setColor(Color.GREEN); break;
+                        case Tiles.FOV_TRAP: g.setColor(Color.BLUE); break;
+                        case Tiles.VOID_TRAP: g.setColor(Color.BLACK); break;
+                        case Tiles.EXIT: g.setColor(Color.RED); break;
                     
                         default:  g.setColor(Color.LIGHT_GRAY); break;
                     }
@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapTest {
+    private static Map map(String... rows) {
+        char[][] layout = new char[rows.length][];
+        for (int y = 0; y < rows.length; y++) layout[y] = rows[y].toCharArray();
+        return new Map(layout);
+    }
+
+    @Test
+    void testOutsideTheMapIsWall() {
+        Map map = map("000", "000");
+        assertFalse(map.isWall(0, 0));
+        assertFalse(map.isWall(2, 1));
+        assertTrue(map.isWall(-1, 0));
+        assertTrue(map.isWall(3, 1));
+        assertTrue(map.isWall(1, 2));
+        assertTrue(map.isWall(-50, 70));
+        // Reads fail loudly outside the map rather than returning the border or the next row
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getTile(-1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getTile(3, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getTile(4, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getTile(0, 2));
+    }
+
+    @Test
+    void testSetTileUpdatesWallsAndLayout() {
+        Map map = map("0T0", "2E0");
+        assertTrue(map.isWall(0, 1));
+        assertEquals('E', map.getTile(1, 1));
+
+        int version = map.getVersion();
+        map.setTile(0, 1, Tiles.EMPTY);
+        map.setTile(2, 0, '5');
+        assertFalse(map.isWall(0, 1));
+        assertTrue(map.isWall(2, 0));
+        assertNotEquals(version, map.getVersion());
+        assertArrayEquals(new char[][]{"0T5".toCharArray(), "0E0".toCharArray()}, map.getMapLayout());
+    }
+}
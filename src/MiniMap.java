@@ -0,0 +1,166 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * The minimap box at the bottom of the screen. The tile colours are rendered
+ * once into a one-pixel-per-tile image, rebuilt only when the map's version
+ * changes (or, on very large maps, when the view leaves the cached window), and
+ * scaled into the box each frame. Maps that fit at MIN_TILE_PX or
+ * more are shown whole; larger ones (or a zoomed-in view) scroll with the
+ * player, so only the visible window is drawn and the cost does not grow with
+ * the map.
+ *
+ * Only the present thread draws; zoom may be changed from the event thread.
+ */
+public class MiniMap {
+    // Below this many pixels per tile the whole map is no longer shown
+    private static final int MIN_TILE_PX = 3;
+    private static final int MAX_TILE_PX = 32;
+    // Tile size a scrolling minimap starts at
+    private static final int SCROLL_TILE_PX = 4;
+    // Number of the frame's rays drawn as minimap lines and lidar dots
+    private static final int MINIMAP_RAYS = 61;
+    // Maps up to this edge are cached whole; larger ones cache a window of at
+    // least LAYER_WINDOW tiles around the view, moved when the view leaves it
+    private static final int LAYER_MAX = 1024;
+    private static final int LAYER_WINDOW = 256;
+
+    private final Map map;
+    private final LidarOverlay lidar;
+    private BufferedImage tiles;
+    private int tilesVersion;
+    private int layerX, layerY; // map tile at the layer's top-left pixel
+    private volatile int zoomTilePx = 0; // 0 = automatic
+    private int lastTilePx = 1;
+
+    public MiniMap(Map map) {
+        this.map = map;
+        this.lidar = new LidarOverlay(map.getWidth(), map.getHeight());
+    }
+
+    /**
+     * Draws the minimap for a canvas of the given size, with rays and lidar dots
+     * taken from the frame's raycast hits. Returns the number of new lidar dots.
+     */
+    public int render(Graphics g, int canvasW, int canvasH, double playerX, double playerY, RayHits hits) {
+        int size = Math.min(canvasW, canvasH) / 5;
+        if (size <= 0) return 0;
+        int mapW = map.getWidth(), mapH = map.getHeight();
+        int tilePx = tilePx(size);
+        lastTilePx = tilePx;
+
+        // World (0, 0) in box coordinates: pinned to the corner when the map fits,
+        // otherwise centred on the player and clamped to the map's edges
+        int originX = 0, originY = 0;
+        if (mapW * tilePx > size) {
+            originX = (int) (size / 2 - playerX * tilePx);
+            originX = Math.max(size - mapW * tilePx, Math.min(0, originX));
+        }
+        if (mapH * tilePx > size) {
+            originY = (int) (size / 2 - playerY * tilePx);
+            originY = Math.max(size - mapH * tilePx, Math.min(0, originY));
+        }
+        int tx0 = -originX / tilePx, ty0 = -originY / tilePx;
+        int tx1 = Math.min(mapW, (size - originX + tilePx - 1) / tilePx);
+        int ty1 = Math.min(mapH, (size - originY + tilePx - 1) / tilePx);
+
+        Graphics box = g.create((canvasW - size) / 2, canvasH - size - 10, size, size);
+        try {
+            // Static layer: only the visible tiles, scaled up from the cache
+            BufferedImage layer = tileLayer(tx0, ty0, tx1, ty1);
+            box.drawImage(layer,
+                    originX + tx0 * tilePx, originY + ty0 * tilePx,
+                    originX + tx1 * tilePx, originY + ty1 * tilePx,
+                    tx0 - layerX, ty0 - layerY, tx1 - layerX, ty1 - layerY, null);
+
+            int pX = originX + (int) (playerX * tilePx);
+            int pY = originY + (int) (playerY * tilePx);
+            box.setColor(Color.RED);
+            box.fillOval(pX - 3, pY - 3, 6, 6);
+
+            // Sample the raycaster's hits evenly across the view instead of casting again
+            int added = 0;
+            box.setColor(Color.YELLOW);
+            int count = hits.getCount();
+            int rays = Math.min(MINIMAP_RAYS, count);
+            int oX = originX + (int) (hits.getOriginX() * tilePx);
+            int oY = originY + (int) (hits.getOriginY() * tilePx);
+            for (int k = 0; k < rays; k++) {
+                int ray = rays == 1 ? 0 : (int) ((long) k * (count - 1) / (rays - 1));
+                double hx = hits.getHitX(ray), hy = hits.getHitY(ray);
+                box.drawLine(oX, oY, originX + (int) (hx * tilePx), originY + (int) (hy * tilePx));
+                if (lidar.add(hx, hy)) added++;
+            }
+
+            // Dots were painted into the overlay pages as they were found
+            lidar.draw(box, originX, originY, tilePx, tx0, ty0, tx1, ty1);
+            return added;
+        } finally {
+            box.dispose();
+        }
+    }
+
+    private int tilePx(int size) {
+        int zoom = zoomTilePx;
+        if (zoom > 0) return zoom;
+        int fit = size / Math.max(map.getWidth(), map.getHeight());
+        return fit >= MIN_TILE_PX ? fit : SCROLL_TILE_PX;
+    }
+
+    /** Doubles the pixels per tile, scrolling around the player. */
+    public void zoomIn() {
+        zoomTilePx = Math.min(MAX_TILE_PX, lastTilePx * 2);
+    }
+
+    /** Halves the pixels per tile, back to the automatic size at the bottom. */
+    public void zoomOut() {
+        int next = lastTilePx / 2;
+        zoomTilePx = next < MIN_TILE_PX ? 0 : next;
+    }
+
+    public void clearDots() {
+        lidar.clear();
+    }
+
+    // Cached tile colours covering at least tiles [tx0, tx1) x [ty0, ty1)
+    private BufferedImage tileLayer(int tx0, int ty0, int tx1, int ty1) {
+        int version = map.getVersion();
+        if (tiles != null && version == tilesVersion
+                && tx0 >= layerX && ty0 >= layerY
+                && tx1 <= layerX + tiles.getWidth() && ty1 <= layerY + tiles.getHeight()) {
+            return tiles;
+        }
+        int mapW = map.getWidth(), mapH = map.getHeight();
+        int w = mapW, h = mapH;
+        layerX = layerY = 0;
+        if (mapW > LAYER_MAX || mapH > LAYER_MAX) {
+            w = Math.min(mapW, Math.max(LAYER_WINDOW, 2 * (tx1 - tx0)));
+            h = Math.min(mapH, Math.max(LAYER_WINDOW, 2 * (ty1 - ty0)));
+            layerX = Math.max(0, Math.min(mapW - w, (tx0 + tx1 - w) / 2));
+            layerY = Math.max(0, Math.min(mapH - h, (ty0 + ty1 - h) / 2));
+        }
+        if (tiles == null || tiles.getWidth() != w || tiles.getHeight() != h) {
+            tiles = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        }
+        int[] px = ((DataBufferInt) tiles.getRaster().getDataBuffer()).getData();
+        int floor = Color.LIGHT_GRAY.getRGB() & 0xFFFFFF;
+        // Flat maps are read straight from their byte grid, disk-backed ones per tile
+        byte[] cells = map.tileCells();
+        int stride = map.getStride();
+        for (int y = 0; y < h; y++) {
+            int row = (layerY + y + 1) * stride + layerX + 1;
+            for (int x = 0; x < w; x++) {
+                // Walls share the floor colour; only the lidar reveals them
+                int t = cells != null ? cells[row + x] : map.getTile(layerX + x, layerY + y);
+                int color = floor;
+                if (t == Tiles.FOV_TRAP) color = 0x0000FF;
+                else if (t == Tiles.EXIT) color = 0xFF0000;
+                px[y * w + x] = color;
+            }
+        }
+        tilesVersion = version;
+        return tiles;
+    }
+}
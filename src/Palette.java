@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+/**
+ * 256-colour palette built by median cut over a set of textures, plus a
+ * light-level x palette-index colormap in the style of classic Doom, so
+ * distance shading of an indexed texel is a single table lookup.
+ */
+public class Palette {
+    public static final int SIZE = 256;
+
+    // Colours are bucketed to 5 bits per channel while quantizing
+    private static final int BITS = 5;
+    private static final int BINS = 1 << (BITS * 3);
+
+    public final int[] colors;
+    private final byte[] inverse; // 15-bit RGB -> nearest palette index
+
+    private Palette(int[] colors) {
+        this.colors = colors;
+        this.inverse = new byte[BINS];
+        for (int key = 0; key < BINS; key++) {
+            int r = expand(key >> 10), g = expand((key >> 5) & 31), b = expand(key & 31);
+            int best = 0, bestDist = Integer.MAX_VALUE;
+            for (int i = 0; i < colors.length; i++) {
+                int c = colors[i];
+                int dr = ((c >> 16) & 0xFF) - r, dg = ((c >> 8) & 0xFF) - g, db = (c & 0xFF) - b;
+                int dist = dr * dr + dg * dg + db * db;
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    best = i;
+                }
+            }
+            inverse[key] = (byte) best;
+        }
+    }
+
+    /** Median-cut palette covering every texel of the given 0xRRGGBB arrays. */
+    public static Palette quantize(int[]... sources) {
+        int[] histogram = new int[BINS];
+        for (int[] texels : sources) {
+            for (int c : texels) histogram[key(c)]++;
+        }
+        int used = 0;
+        for (int count : histogram) if (count > 0) used++;
+        int[] bins = new int[used];
+        for (int key = 0, n = 0; key < BINS; key++) {
+            if (histogram[key] > 0) bins[n++] = key;
+        }
+
+        // Boxes are [start, end) ranges of bins; keep splitting the most populous one
+        int[] starts = new int[SIZE], ends = new int[SIZE];
+        int boxes = 1;
+        ends[0] = used;
+        while (boxes < SIZE) {
+            int pick = -1;
+            long pickPixels = 0;
+            for (int i = 0; i < boxes; i++) {
+                if (ends[i] - starts[i] < 2) continue;
+                long pixels = 0;
+                for (int j = starts[i]; j < ends[i]; j++) pixels += histogram[bins[j]];
+                if (pixels > pickPixels) {
+                    pickPixels = pixels;
+                    pick = i;
+                }
+            }
+            if (pick < 0) break;
+            int mid = splitBox(bins, histogram, starts[pick], ends[pick], pickPixels);
+            starts[boxes] = mid;
+            ends[boxes] = ends[pick];
+            ends[pick] = mid;
+            boxes++;
+        }
+
+        int[] colors = new int[Math.max(1, boxes)];
+        for (int i = 0; i < boxes; i++) {
+            long r = 0, g = 0, b = 0, total = 0;
+            for (int j = starts[i]; j < ends[i]; j++) {
+                int key = bins[j], count = histogram[key];
+                r += (long) expand(key >> 10) * count;
+                g += (long) expand((key >> 5) & 31) * count;
+                b += (long) expand(key & 31) * count;
+                total += count;
+            }
+            if (total > 0) {
+                colors[i] = (int) (r / total) << 16 | (int) (g / total) << 8 | (int) (b / total);
+            }
+        }
+        return new Palette(colors);
+    }
+
+    // Sort the box along its widest channel and split it at the pixel-weighted median
+    private static int splitBox(int[] bins, int[] histogram, int start, int end, long pixels) {
+        int shift = 0, widest = -1;
+        for (int s = 0; s <= 10; s += 5) {
+            int lo = 31, hi = 0;
+            for (int j = start; j < end; j++) {
+                int v = (bins[j] >> s) & 31;
+                lo = Math.min(lo, v);
+                hi = Math.max(hi, v);
+            }
+            if (hi - lo > widest) {
+                widest = hi - lo;
+                shift = s;
+            }
+        }
+        int[] packed = new int[end - start];
+        for (int j = start; j < end; j++) {
+            packed[j - start] = ((bins[j] >> shift) & 31) << 15 | bins[j];
+        }
+        Arrays.sort(packed);
+        for (int j = start; j < end; j++) bins[j] = packed[j - start] & (BINS - 1);
+
+        long seen = 0;
+        for (int j = start; j < end - 1; j++) {
+            seen += histogram[bins[j]];
+            if (seen * 2 >= pixels) return j + 1;
+        }
+        return end - 1;
+    }
+
+    /** Nearest palette index for a 0xRRGGBB colour. */
+    public int indexOf(int rgb) {
+        return inverse[key(rgb)] & 0xFF;
+    }
+
+    /** Palette indices for every texel, in the same order. */
+    public byte[] toIndices(int[] texels) {
+        byte[] indices = new byte[texels.length];
+        for (int i = 0; i < texels.length; i++) {
+            indices[i] = inverse[key(texels[i])];
+        }
+        return indices;
+    }
+
+    /**
+     * Shaded colours laid out as [level * SIZE + index]. Level 0 is full
+     * brightness and the last level is black, matching the linear distance fade.
+     */
+    public int[] colormap(int levels) {
+        int[] map = new int[levels * SIZE];
+        for (int level = 0; level < levels; level++) {
+            double light = 1.0 - (double) level / (levels - 1);
+            for (int i = 0; i < colors.length; i++) {
+                int c = colors[i];
+                int r = (int) (((c >> 16) & 0xFF) * light);
+                int g = (int) (((c >> 8) & 0xFF) * light);
+                int b = (int) ((c & 0xFF) * light);
+                map[level * SIZE + i] = (r << 16) | (g << 8) | b;
+            }
+        }
+        return map;
+    }
+
+    private static int key(int rgb) {
+        return ((rgb >> 19) & 31) << 10 | ((rgb >> 11) & 31) << 5 | ((rgb >> 3) & 31);
+    }
+
+    private static int expand(int v) {
+        return (v << 3) | (v >> 2);
+    }
+}
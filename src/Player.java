@@ -20,8 +20,11 @@ public class Player {
 
     /** Called once per frame: handles stamina drain/recovery. */
     public void update(Map map) {
-        double dt = 1.0 / 60.0; // or use a real delta if you pass one
+        update(map, 1.0 / 60.0);
+    }
 
+    /** Advances stamina drain/recovery by one simulation step of {@code dt} seconds. */
+    public void update(Map map, double dt) {
         if (isSpeedBoosted) {
             stamina = Math.max(0, stamina - DEPLETION_PER_SEC * dt);
             regenCooldownTimer = REGEN_COOLDOWN_TIME;
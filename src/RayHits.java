@@ -0,0 +1,37 @@
+/**
+ * Where each ray of a raycast frame hit its wall: world coordinates of the hit
+ * point and the distance along the ray, per ray column, plus the camera position
+ * the rays were cast from. Filled by Raycaster's wall pass and read by the
+ * minimap, so nothing has to cast the same rays again.
+ */
+public class RayHits {
+    private double originX, originY;
+    private double[] hitX = new double[0], hitY = new double[0], dist = new double[0];
+    private int count;
+
+    /** Starts a frame of {@code count} rays cast from (originX, originY). */
+    void begin(double originX, double originY, int count) {
+        this.originX = originX;
+        this.originY = originY;
+        this.count = count;
+        if (hitX.length < count) {
+            hitX = new double[count];
+            hitY = new double[count];
+            dist = new double[count];
+        }
+    }
+
+    // Rays are written from several worker strips, each to its own indices
+    void set(int ray, double x, double y, double distance) {
+        hitX[ray] = x;
+        hitY[ray] = y;
+        dist[ray] = distance;
+    }
+
+    public int getCount()          { return count; }
+    public double getOriginX()     { return originX; }
+    public double getOriginY()     { return originY; }
+    public double getHitX(int ray) { return hitX[ray]; }
+    public double getHitY(int ray) { return hitY[ray]; }
+    public double getDistance(int ray) { return dist[ray]; }
+}
@@ -1,37 +1,125 @@
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.*;
-import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Raycaster {
-    // Use full-resolution textures
-    private static final double TEXTURE_SCALE = 1.0;
+    // Strips handed out per worker, so uneven columns (near walls vs open floor) balance out
+    private static final int STRIPS_PER_THREAD = 4;
+
+    // Optional 8-bit mode (-Drays.indexedColor=true): textures hold palette indices
+    // and distance shading becomes a colormap lookup instead of per-channel math
+    static final boolean INDEXED_COLOR = Boolean.getBoolean("rays.indexedColor");
+    static final int LIGHT_LEVELS = 32;
+
+    // Optional temporal interleave (-Drays.interleave=true): each frame traces only
+    // every other ray column and reprojects the rest from the previous frame's hits.
+    // A turn of more than this fraction of the view between frames traces everything.
+    private static final boolean INTERLEAVE = Boolean.getBoolean("rays.interleave");
+    private static final double MAX_REPROJECT_TURN = 0.1;
+
+    // Floor colour per tile code; FLOOR_TEXTURED falls through to the floor texture
+    private static final int FLOOR_TEXTURED = -1;
+    private static final int[] FLOOR_PALETTE = new int[128];
+    static {
+        Arrays.fill(FLOOR_PALETTE, FLOOR_TEXTURED);
+        FLOOR_PALETTE[Tiles.FOV_TRAP] = 0x0000FF;
+        FLOOR_PALETTE[Tiles.EXIT] = 0xFF0000;
+        FLOOR_PALETTE[Tiles.MARKED_FLOOR] = 0xFF00FF;
+        FLOOR_PALETTE[Tiles.VOID_TRAP] = 0x000000;
+        FLOOR_PALETTE[Tiles.WIN] = 0xFFFF00; // Win point
+    }
+
+    // Wall texture ID per tile code (Tiles.NOT_WALL for open tiles), read by the DDA
+    private static final byte[] WALL_IDS = Tiles.TEXTURE_ID;
+
+    // Sky colour used when sky1.jpg could not be loaded
+    private static final int SKY_COLOR = 0x87CEEB;
+
+    // Shared by every raycaster; rebuilt only when the worker count changes
+    private static ForkJoinPool renderPool;
 
-    private char[][] map;
+    // The map's padded grid (see Map): tile codes, wall bits and row length. Shared
+    // with the Map, so editor changes show up in the next frame.
+    private byte[] tiles;
+    private long[] walls;
+    private int stride;
+    // Disk-backed maps have no flat grid; rays and the floor read chunks instead
+    private ChunkedTileStore store;
     private int mapWidth, mapHeight;
     private double playerX, playerY, playerAngle;
     private int screenWidth, screenHeight;
-    @SuppressWarnings("unused")
     private int fov, rayResolution;
 
-    private static BufferedImage wallTexture;
-    private static BufferedImage floorTexture;
-    private static BufferedImage skyTexture;
+    // Shared textures, held open until close(); the fields below are unpacked from it
+    private AssetManager.Handle<TextureSet> textureHandle;
+    // Every wall texture with its mip chain, indexed by Tiles texture ID
+    private TextureAtlas wallAtlas;
+    // Mip chain, level 0 being the texture itself; distant surfaces read smaller levels
+    private Texture[] floorMips;
+    private Palette palette;
+    private int[] colormap;
+    private BufferedImage skyTexture;
     private BufferedImage image;
     private int[] pixels;
 
     private double[] offsetCos, offsetSin;
+    // Per-ray scratch filled by the wall pass and read by the floor pass
+    private double[] rayDirX, rayDirY;
+    private int[] wallTop, wallBottom;
+    // Per-ray wall hit, filled by tracing or reprojection and read by shading: wall
+    // cell, face (0 = crossed a vertical grid line), distance and texture position.
+    // The prev* arrays hold the last frame's, swapped in after every frame.
+    private int[] hitCellX, hitCellY, prevCellX, prevCellY;
+    private byte[] hitSide, prevSide;
+    // Wall texture ID of each hit; travels with the cell through reprojection
+    private byte[] hitTex, prevTex;
+    private double[] hitDist, hitWallX;
+    private boolean interleaved = INTERLEAVE, prevValid = false;
+    private double prevFrameAngle;
+    private int parity;
+    // Sky scaled to the horizon height (row-major, skyTexW wide), and the same
+    // stretched into a 360-degree panorama at panoramaFov so that one screen
+    // column is one panorama column and a frame copies rows instead of sampling
+    private final int[] skyRows;
+    private final int skyTexW;
+    private int[] skyPanorama;
+    private int panoramaW, panoramaFov = -1, lastSkyFov = -1;
+    // Per-frame sky placement: panorama column at screen x = 0, or, while the
+    // FOV is animating, the sky texture column of every screen column
+    private int skyOffset;
+    private boolean usePanorama;
+    private final int[] skyColumn;
+    // Per-row floor distance and off-map shade; depend only on the screen height
+    private final double[] rowDistance;
+    // Floor mip level per screen row; depends on the FOV and ray resolution too
+    private int[] floorLevel;
+    private final int[] outsideShade;
     private int prevFov = -1, prevRes = -1;
+    private int renderThreads = 1;
+    private FrameMetrics metrics;
+    // Where this frame's rays hit, for the minimap; null when nobody asked
+    private RayHits hits;
 
     public Raycaster(char[][] map, int mapWidth, int mapHeight,
                      double playerX, double playerY, double playerAngle,
                      int screenWidth, int screenHeight,
                      int fov, int rayResolution) {
-        this.map = map;
-        this.mapWidth = mapWidth;
-        this.mapHeight = mapHeight;
+        this(new Map(map), playerX, playerY, playerAngle, screenWidth, screenHeight, fov, rayResolution);
+    }
+
+    public Raycaster(Map map, double playerX, double playerY, double playerAngle,
+                     int screenWidth, int screenHeight, int fov, int rayResolution) {
+        this.tiles = map.tileCells();
+        this.walls = map.wallCells();
+        this.stride = map.getStride();
+        this.store = map.chunkStore();
+        this.mapWidth = map.getWidth();
+        this.mapHeight = map.getHeight();
         this.playerX = playerX;
         this.playerY = playerY;
         this.playerAngle = playerAngle;
@@ -40,72 +128,93 @@ public class Raycaster {
         this.fov = fov;
         this.rayResolution = rayResolution;
 
-        // Load full-res textures once
-        if (wallTexture == null) {
-            try {
-                File wallFile = new File("textures/brick3.jpg");
-                File floorFile = new File("textures/floor.jpg");
-                File skyFile = new File("textures/sky1.jpg");
-
-                System.out.println("Loading wall texture from: " + wallFile.getAbsolutePath());
-                System.out.println("Loading floor texture from: " + floorFile.getAbsolutePath());
-                System.out.println("Loading sky texture from: " + skyFile.getAbsolutePath());
-
-                BufferedImage rawWall  = ImageIO.read(wallFile);
-                BufferedImage rawFloor = ImageIO.read(floorFile);
-                wallTexture  = scaleTexture(rawWall, TEXTURE_SCALE);
-                floorTexture = scaleTexture(rawFloor, TEXTURE_SCALE);
-                skyTexture   = ImageIO.read(skyFile);
-            } catch (IOException e) {
-                System.err.println("❌ Texture load error:");
-                e.printStackTrace();
-
-                // Set textures to null explicitly to avoid NullPointerException
-                wallTexture = null;
-                floorTexture = null;
-                skyTexture = null;
-            }
+        // Textures come from the shared asset manager: loaded in the background since
+        // startup and kept resident while any raycaster holds them
+        textureHandle = AssetLoader.acquireTextures();
+        try {
+            TextureSet textures = textureHandle.get();
+            wallAtlas    = textures.walls;
+            floorMips    = textures.floorMips;
+            palette      = textures.palette;
+            colormap     = textures.colormap;
+            skyTexture   = textures.sky;
+        } catch (IOException e) {
+            System.err.println("❌ Texture load error:");
+            e.printStackTrace();
         }
 
         image = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_RGB);
         pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        int skyH = screenHeight / 2;
+        if (skyTexture != null) {
+            skyTexW = skyTexture.getWidth();
+            skyRows = pixelsOf(scaleTo(skyTexture, skyTexW, skyH));
+        } else {
+            skyTexW = 1;
+            skyRows = new int[Math.max(1, skyH)];
+            Arrays.fill(skyRows, SKY_COLOR);
+        }
+        skyColumn = new int[screenWidth];
+
+        rowDistance = new double[screenHeight];
+        outsideShade = new int[screenHeight];
+        for (int y = 0; y < screenHeight; y++) {
+            rowDistance[y] = screenHeight / (2.0 * y - screenHeight);
+            int shade = Math.max(0, Math.min(255,
+                    (int)(1 + 205.0 * (y - skyH) / skyH)));
+            outsideShade[y] = (shade << 16) | (shade << 8) | shade;
+        }
     }
 
-    private BufferedImage scaleTexture(BufferedImage orig, double scale) {
-        int w = (int) (orig.getWidth() * scale);
-        int h = (int) (orig.getHeight() * scale);
-        BufferedImage buff = new BufferedImage(w, h, orig.getType());
-        AffineTransform at = AffineTransform.getScaleInstance(scale, scale);
-        AffineTransformOp op = new AffineTransformOp(at, AffineTransformOp.TYPE_BILINEAR);
-        return op.filter(orig, buff);
+    // Bilinear resize into a fresh TYPE_INT_RGB image
+    private static BufferedImage scaleTo(BufferedImage src, int w, int h) {
+        BufferedImage dst = new BufferedImage(Math.max(1, w), Math.max(1, h), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, dst.getWidth(), dst.getHeight(), null);
+        g.dispose();
+        return dst;
     }
 
-    public BufferedImage castRays() {
-        Graphics2D g2d = image.createGraphics();
+    private static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
 
-        // (1) High-quality rendering hints
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-                             RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g2d.setRenderingHint(RenderingHints.KEY_RENDERING,
-                             RenderingHints.VALUE_RENDER_QUALITY);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                             RenderingHints.VALUE_ANTIALIAS_ON);
+    // Mip level whose texels are about one per screen pixel when {@code texels}
+    // source texels land on {@code pixels} pixels
+    private static int mipLevel(double texels, double pixels, int levels) {
+        if (pixels <= 0 || texels <= pixels) return 0;
+        int level = 31 - Integer.numberOfLeadingZeros((int) Math.min(Integer.MAX_VALUE, texels / pixels));
+        return Math.min(level, levels - 1);
+    }
 
-        // Draw sky
-        int skyH = screenHeight / 2;
-        if (skyTexture != null) {
-            int texW = skyTexture.getWidth();
-            float offsetX = (float)((playerAngle / (2 * Math.PI)) * texW) % texW;
-            if (offsetX < 0) offsetX += texW;
-            TexturePaint skyPaint = new TexturePaint(skyTexture, new Rectangle((int)-offsetX, 0, texW, skyH));
-            g2d.setPaint(skyPaint);
-            g2d.fillRect(0, 0, screenWidth, skyH);
-            g2d.setPaint(Color.BLACK);
-        } else {
-            g2d.setColor(new Color(135, 206, 235));
-            g2d.fillRect(0, 0, screenWidth, skyH);
-            g2d.setPaint(Color.BLACK);
+    /** Releases this raycaster's hold on the shared textures; it must not render afterwards. */
+    public void close() {
+        textureHandle.close();
+    }
+
+    /** Renders into the given image, which must match this raycaster's screen size. */
+    public BufferedImage castRays(BufferedImage target) {
+        return castRays(target, null);
+    }
+
+    /** As {@link #castRays(BufferedImage)}, also recording every ray's wall hit into {@code hits}. */
+    public BufferedImage castRays(BufferedImage target, RayHits hits) {
+        if (target != image) {
+            image = target;
+            pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        }
+        this.hits = hits;
+        try {
+            return castRays();
+        } finally {
+            this.hits = null;
         }
+    }
+
+    public BufferedImage castRays() {
+        long wallStart = System.nanoTime();
 
         // Prepare rotation factors
         double cosA = Math.cos(playerAngle);
@@ -114,79 +223,186 @@ public class Raycaster {
         // Rebuild offsets if needed
         updateSettings(fov, rayResolution);
         int count = offsetCos.length;
+        if (hits != null) hits.begin(playerX, playerY, count);
+
+        // Walls first, so the sky and floor passes only fill what the walls left
+        // uncovered; each pass is split into column strips
+        // Interleaved: trace this frame's half of the columns first, so the other
+        // half can check reprojected hits against both traced neighbours
+        int shift = 0;
+        boolean reproject = false;
+        if (interleaved && prevValid) {
+            double step = Math.toRadians(fov) * rayResolution / screenWidth;
+            double turn = Math.IEEEremainder(playerAngle - prevFrameAngle, 2 * Math.PI);
+            shift = (int) Math.round(turn / step);
+            reproject = Math.abs(turn) <= Math.toRadians(fov) * MAX_REPROJECT_TURN;
+        }
+        parity ^= 1;
+        if (reproject) {
+            int traced = parity;
+            runPass(count, (from, to) -> traceColumns(from, to, cosA, sinA, traced));
+        }
+        boolean partial = reproject;
+        int columnShift = shift;
+        runPass(count, (from, to) -> castWalls(from, to, cosA, sinA, partial, columnShift));
+        swapHitBuffers();
+        long skyStart = System.nanoTime();
+        prepareSky();
+        runPass(count, this::castSky);
+        long floorStart = System.nanoTime();
+        runPass(count, this::castFloor);
+        long end = System.nanoTime();
+
+        if (metrics != null) {
+            metrics.record(FrameMetrics.Stage.WALLS, skyStart - wallStart);
+            metrics.record(FrameMetrics.Stage.SKY, floorStart - skyStart);
+            metrics.record(FrameMetrics.Stage.FLOOR, end - floorStart);
+        }
+        return image;
+    }
 
-        // Raycast loop
-        for (int i = 0; i < count; i++) {
-            int x = i * rayResolution;
+    // Picks this frame's sky source. The panorama is rebuilt only once the FOV has
+    // held still for a frame; while it animates, columns are sampled instead.
+    private void prepareSky() {
+        int skyH = screenHeight / 2;
+        int width = (int) Math.round(screenWidth * 360.0 / fov);
+        // The texture repeats around the circle at roughly its own width, as the
+        // old tiled fill did, stretched just enough to wrap without a seam
+        int repeats = Math.max(1, (int) Math.round((double) width / skyTexW));
+        if (panoramaFov < 0 || (fov != panoramaFov && fov == lastSkyFov)) {
+            panoramaW = width;
+            skyPanorama = null;
+            if (skyTexture != null) {
+                BufferedImage panorama = new BufferedImage(width, Math.max(1, skyH), BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = panorama.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                for (int k = 0; k < repeats; k++) {
+                    int x0 = (int) ((long) width * k / repeats), x1 = (int) ((long) width * (k + 1) / repeats);
+                    g.drawImage(skyTexture, x0, 0, x1 - x0, panorama.getHeight(), null);
+                }
+                g.dispose();
+                skyPanorama = pixelsOf(panorama);
+            }
+            panoramaFov = fov;
+        }
+        lastSkyFov = fov;
+        double turn = playerAngle / (2 * Math.PI);
+        usePanorama = fov == panoramaFov && skyPanorama != null;
+        if (usePanorama) {
+            // Screen centre looks along playerAngle
+            skyOffset = (int) Math.floorMod((long) Math.floor(turn * panoramaW) - screenWidth / 2, (long) panoramaW);
+        } else {
+            double perColumn = fov / 360.0 / screenWidth;
+            for (int x = 0; x < screenWidth; x++) {
+                double t = turn + (x - screenWidth / 2) * perColumn;
+                skyColumn[x] = (int) Math.floorMod((long) Math.floor(t * repeats * skyTexW), (long) skyTexW);
+            }
+        }
+    }
+
+    // A pass over the ray columns [from, to); writes only those columns' pixels
+    private interface ColumnPass {
+        void run(int from, int to);
+    }
+
+    // Run a pass inline, or split the columns into strips and run them concurrently
+    // on the worker pool. Strips never touch each other's output.
+    private void runPass(int count, ColumnPass pass) {
+        if (renderThreads <= 1 || count <= 1) {
+            pass.run(0, count);
+            return;
+        }
+        ForkJoinPool pool = renderPool(renderThreads);
+        int strips = Math.min(count, renderThreads * STRIPS_PER_THREAD);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(strips);
+        for (int s = 0; s < strips; s++) {
+            int from = (int) ((long) count * s / strips);
+            int to   = (int) ((long) count * (s + 1) / strips);
+            tasks.add(pool.submit(() -> pass.run(from, to)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    // Trace pass of an interleaved frame: DDA for the rays [from, to) of one parity
+    private void traceColumns(int from, int to, double cosA, double sinA, int parity) {
+        for (int i = from + ((from & 1) ^ parity); i < to; i += 2) {
             double dx = offsetCos[i] * cosA - offsetSin[i] * sinA;
             double dy = offsetSin[i] * cosA + offsetCos[i] * sinA;
+            rayDirX[i] = dx;
+            rayDirY[i] = dy;
+            trace(i, dx, dy);
+        }
+    }
 
-            // DDA initialization
-            double deltaX = dx == 0 ? 1e30 : Math.abs(1 / dx);
-            double deltaY = dy == 0 ? 1e30 : Math.abs(1 / dy);
-            int mapX = (int) playerX, mapY = (int) playerY;
-            int stepX = dx < 0 ? -1 : 1, stepY = dy < 0 ? -1 : 1;
-            double sideX = dx < 0 ? (playerX - mapX) * deltaX : (mapX + 1 - playerX) * deltaX;
-            double sideY = dy < 0 ? (playerY - mapY) * deltaY : (mapY + 1 - playerY) * deltaY;
-
-            boolean hit = false;
-            int side = 0;
-            while (!hit) {
-                if (sideX < sideY) {
-                    sideX += deltaX;
-                    mapX += stepX;
-                    side = 0;
-                } else {
-                    sideY += deltaY;
-                    mapY += stepY;
-                    side = 1;
-                }
-                if (mapX < 0 || mapX >= mapWidth ||
-                    mapY < 0 || mapY >= mapHeight ||
-                    map[mapY][mapX] == '1') {
-                    hit = true;
-                }
+    // Wall pass for rays [from, to); records each ray's direction and slice extent for the sky
+    // and floor. In a partial frame, rays the trace pass skipped are reprojected where possible.
+    private void castWalls(int from, int to, double cosA, double sinA, boolean partial, int shift) {
+        TextureAtlas atlas = wallAtlas;
+        int[] wallTexels = atlas.texels;
+        byte[] wallIndices = atlas.indices;
+        for (int i = from; i < to; i++) {
+            int x = i * rayResolution;
+            double dx = offsetCos[i] * cosA - offsetSin[i] * sinA;
+            double dy = offsetSin[i] * cosA + offsetCos[i] * sinA;
+            if (!partial) {
+                rayDirX[i] = dx;
+                rayDirY[i] = dy;
+                trace(i, dx, dy);
+            } else if ((i & 1) != parity) {
+                rayDirX[i] = dx;
+                rayDirY[i] = dy;
+                if (!reproject(i, dx, dy, shift)) trace(i, dx, dy);
             }
 
             // Distance and slice height
-            double dist = (side == 0)
-                        ? (mapX - playerX + (1 - stepX) / 2) / dx
-                        : (mapY - playerY + (1 - stepY) / 2) / dy;
-            dist = Math.max(dist, 1e-4);
+            double dist = hitDist[i];
+            if (hits != null) hits.set(i, playerX + dx * dist, playerY + dy * dist, dist);
             int lineH = (int)(screenHeight / dist);
             int yStart = Math.max(0, (screenHeight - lineH) / 2);
             int yEnd   = Math.min(screenHeight, (screenHeight + lineH) / 2);
 
-            // Calculate texture X
-            double wallX = ((side == 0) ? playerY + dist * dy : playerX + dist * dx) % 1.0;
-            int texX = (int)(wallX * wallTexture.getWidth());
+            // Atlas slot from the hit's texture ID and the mip level for the slice
+            // height, then texture X within that level
+            int base = hitTex[i] * TextureAtlas.MAX_LEVELS;
+            int slot = base + mipLevel(atlas.height[base], lineH, atlas.levels[hitTex[i]]);
+            int wallTexH = atlas.height[slot];
+            double wallX = hitWallX[i];
+            int texX = (int)(wallX * atlas.width[slot]);
 
-            // (2) Draw wall slice with bilinear filtering
-            g2d.drawImage(
-                wallTexture,
-                /* dst */ x, yStart, x + rayResolution, yEnd,
-                /* src */ texX, 0, texX + 1, wallTexture.getHeight(),
-                null
-            );
+            // Walk the texture column in 16.16 fixed point; one add per pixel
+            int column = atlas.offset[slot] + texX * wallTexH;
+            int texStep = lineH > 0 ? (int) (((long) wallTexH << 16) / lineH) : 0;
+            int texPos = 0;
 
             // Apply darkness effect based on distance
             float darknessFactor = (float) Math.min(1.0, dist / 15.0); // Adjust 10.0 for desired effect
+            int shadeBase = (int) (darknessFactor * (LIGHT_LEVELS - 1) + 0.5f) * Palette.SIZE;
             for (int y = yStart; y < yEnd; y++) {
-                int srcY = (int) ((y - yStart) / (double) lineH * wallTexture.getHeight());
-                int color = wallTexture.getRGB(texX, srcY);
+                int texY = texPos >>> 16;
+                texPos += texStep;
+                int color;
 
-                // Extract RGB components
-                int r = (color >> 16) & 0xFF;
-                int g = (color >> 8) & 0xFF;
-                int b = color & 0xFF;
+                if (wallIndices != null) {
+                    // Indexed: shading is baked into the colormap
+                    color = colormap[shadeBase + (wallIndices[column + texY] & 0xFF)];
+                } else {
+                    color = wallTexels[column + texY];
 
-                // Apply darkness
-                r = (int) (r * (1 - darknessFactor));
-                g = (int) (g * (1 - darknessFactor));
-                b = (int) (b * (1 - darknessFactor));
+                    // Extract RGB components
+                    int r = (color >> 16) & 0xFF;
+                    int g = (color >> 8) & 0xFF;
+                    int b = color & 0xFF;
 
-                // Combine back to color
-                color = (r << 16) | (g << 8) | b;
+                    // Apply darkness
+                    r = (int) (r * (1 - darknessFactor));
+                    g = (int) (g * (1 - darknessFactor));
+                    b = (int) (b * (1 - darknessFactor));
+
+                    // Combine back to color
+                    color = (r << 16) | (g << 8) | b;
+                }
 
                 // Draw pixel
                 for (int rx = 0; rx < rayResolution; rx++) {
@@ -197,51 +413,269 @@ public class Raycaster {
                 }
             }
 
-            // Draw floor slice (nearest)
-            for (int y = yEnd; y < screenHeight; y++) {
-                double floorDist = screenHeight / (2.0 * y - screenHeight);
-                double fx = playerX + dx * floorDist;
-                double fy = playerY + dy * floorDist;
+            wallTop[i] = yStart;
+            wallBottom[i] = yEnd;
+        }
+    }
+
+    // DDA from the player along (dx, dy) to the first wall; fills ray i's hit
+    private void trace(int i, double dx, double dy) {
+        double deltaX = dx == 0 ? 1e30 : Math.abs(1 / dx);
+        double deltaY = dy == 0 ? 1e30 : Math.abs(1 / dy);
+        int mapX = (int) playerX, mapY = (int) playerY;
+        int stepX = dx < 0 ? -1 : 1, stepY = dy < 0 ? -1 : 1;
+        double sideX = dx < 0 ? (playerX - mapX) * deltaX : (mapX + 1 - playerX) * deltaX;
+        double sideY = dy < 0 ? (playerY - mapY) * deltaY : (mapY + 1 - playerY) * deltaY;
+
+        if (store != null) {
+            traceChunks(i, dx, dy, mapX, mapY, stepX, stepY, sideX, sideY, deltaX, deltaY);
+            return;
+        }
+
+        // Walk the padded grid by cell index; the wall border stops every ray that
+        // starts inside the map, so the loop only tests wall bits. A ray starting
+        // outside takes one step and counts as hitting a wall of the first texture.
+        boolean outside = mapX < 0 || mapX >= mapWidth || mapY < 0 || mapY >= mapHeight;
+        int cell = (mapY + 1) * stride + mapX + 1;
+        int cellStepY = stepY * stride;
+        long[] walls = this.walls;
+        int side;
+        do {
+            if (sideX < sideY) {
+                sideX += deltaX;
+                mapX += stepX;
+                cell += stepX;
+                side = 0;
+            } else {
+                sideY += deltaY;
+                mapY += stepY;
+                cell += cellStepY;
+                side = 1;
+            }
+        } while (!outside && (walls[cell >>> 6] & (1L << cell)) == 0);
+        // Wall cells (and the border) always hold wall codes, which are ASCII
+        int tex = outside ? 0 : WALL_IDS[tiles[cell] & 0x7F];
+        setHit(i, dx, dy, mapX, mapY, side, tex);
+    }
+
+    // Records ray i's hit on the given face of wall cell (mapX, mapY)
+    private void setHit(int i, double dx, double dy, int mapX, int mapY, int side, int tex) {
+        double dist = (side == 0)
+                    ? (mapX - playerX + (dx < 0 ? 1 : 0)) / dx
+                    : (mapY - playerY + (dy < 0 ? 1 : 0)) / dy;
+        dist = Math.max(dist, 1e-4);
+        hitCellX[i] = mapX;
+        hitCellY[i] = mapY;
+        hitSide[i] = (byte) side;
+        hitTex[i] = (byte) tex;
+        hitDist[i] = dist;
+        hitWallX[i] = ((side == 0) ? playerY + dist * dy : playerX + dist * dx) % 1.0;
+    }
+
+    // trace() for a disk-backed map, continuing from trace()'s DDA setup: the same
+    // walk, with a bounds check per step since there is no border, and the wall bit
+    // read from the chunk the ray is in. A chunk is looked up only when the ray
+    // crosses into the next one.
+    private void traceChunks(int i, double dx, double dy, int mapX, int mapY, int stepX, int stepY,
+                             double sideX, double sideY, double deltaX, double deltaY) {
+        int side, tex = 0;
+        int chunkX = Integer.MIN_VALUE, chunkY = Integer.MIN_VALUE;
+        ChunkedTileStore.Chunk chunk = null;
+        while (true) {
+            if (sideX < sideY) {
+                sideX += deltaX;
+                mapX += stepX;
+                side = 0;
+            } else {
+                sideY += deltaY;
+                mapY += stepY;
+                side = 1;
+            }
+            // Leaving the map counts as a wall of the first texture
+            if (mapX < 0 || mapX >= mapWidth || mapY < 0 || mapY >= mapHeight) break;
+            int cx = mapX >> ChunkedTileStore.CHUNK_SHIFT, cy = mapY >> ChunkedTileStore.CHUNK_SHIFT;
+            if (cx != chunkX || cy != chunkY) {
+                chunk = store.chunk(cx, cy);
+                chunkX = cx;
+                chunkY = cy;
+            }
+            int lx = mapX & (ChunkedTileStore.CHUNK - 1), ly = mapY & (ChunkedTileStore.CHUNK - 1);
+            if ((chunk.walls[ly] >>> lx & 1) != 0) {
+                tex = WALL_IDS[chunk.tiles[ly << ChunkedTileStore.CHUNK_SHIFT | lx] & 0x7F];
+                break;
+            }
+        }
+        setHit(i, dx, dy, mapX, mapY, side, tex);
+    }
+
+    // Reuses the wall face that last frame's ray at the same world angle hit (column
+    // i + shift), if both neighbours traced this frame hit that face too. The ray is
+    // then intersected with the face exactly, so the result matches a trace.
+    private boolean reproject(int i, double dx, double dy, int shift) {
+        int j = i + shift, count = hitDist.length;
+        if (j < 0 || j >= count) return false;
+        int cellX = prevCellX[j], cellY = prevCellY[j];
+        byte side = prevSide[j];
+        for (int n = i - 1; n <= i + 1; n += 2) {
+            if (n < 0 || n >= count) continue;
+            if (hitCellX[n] != cellX || hitCellY[n] != cellY || hitSide[n] != side) return false;
+        }
+        double dist, along;
+        if (side == 0) {
+            if (dx == 0) return false;
+            dist = (cellX + (dx < 0 ? 1 : 0) - playerX) / dx;
+            along = playerY + dist * dy;
+            if (along < cellY || along > cellY + 1) return false;
+        } else {
+            if (dy == 0) return false;
+            dist = (cellY + (dy < 0 ? 1 : 0) - playerY) / dy;
+            along = playerX + dist * dx;
+            if (along < cellX || along > cellX + 1) return false;
+        }
+        if (dist <= 0) return false;
+        dist = Math.max(dist, 1e-4);
+        hitCellX[i] = cellX;
+        hitCellY[i] = cellY;
+        hitSide[i] = side;
+        hitTex[i] = prevTex[j];
+        hitDist[i] = dist;
+        hitWallX[i] = along % 1.0;
+        return true;
+    }
+
+    // This frame's hits become the reprojection source for the next
+    private void swapHitBuffers() {
+        int[] cx = prevCellX; prevCellX = hitCellX; hitCellX = cx;
+        int[] cy = prevCellY; prevCellY = hitCellY; hitCellY = cy;
+        byte[] sd = prevSide; prevSide = hitSide; hitSide = sd;
+        byte[] tx = prevTex; prevTex = hitTex; hitTex = tx;
+        prevFrameAngle = playerAngle;
+        prevValid = true;
+    }
+
+    /** Temporal column interleave; off traces every column every frame. */
+    public void setInterleaved(boolean interleaved) {
+        this.interleaved = interleaved;
+        prevValid = false;
+    }
+
+    // Sky pass for rays [from, to): rows above the horizon that no wall covers,
+    // copied in runs of adjacent uncovered columns
+    private void castSky(int from, int to) {
+        int skyH = screenHeight / 2;
+        int minTop = skyH, maxTop = 0;
+        for (int i = from; i < to; i++) {
+            minTop = Math.min(minTop, wallTop[i]);
+            maxTop = Math.max(maxTop, wallTop[i]);
+        }
+        int x0 = from * rayResolution, x1 = Math.min(screenWidth, to * rayResolution);
+        int lastRow = Math.min(skyH, maxTop);
+        for (int y = 0; y < lastRow; y++) {
+            if (y < minTop) {
+                copySky(y, x0, x1);
+                continue;
+            }
+            int i = from;
+            while (i < to) {
+                if (wallTop[i] <= y) {
+                    i++;
+                    continue;
+                }
+                int j = i + 1;
+                while (j < to && wallTop[j] > y) j++;
+                copySky(y, i * rayResolution, Math.min(screenWidth, j * rayResolution));
+                i = j;
+            }
+        }
+    }
+
+    // Sky for row y, screen columns [xa, xb)
+    private void copySky(int y, int xa, int xb) {
+        int row = y * screenWidth;
+        if (usePanorama) {
+            int src = (skyOffset + xa) % panoramaW;
+            int panoRow = y * panoramaW;
+            while (xa < xb) {
+                int n = Math.min(xb - xa, panoramaW - src);
+                System.arraycopy(skyPanorama, panoRow + src, pixels, row + xa, n);
+                xa += n;
+                src = 0;
+            }
+        } else {
+            int texRow = y * skyTexW;
+            for (int x = xa; x < xb; x++) {
+                pixels[row + x] = skyRows[texRow + skyColumn[x]];
+            }
+        }
+    }
+
+    // Floor pass for rays [from, to), one screen row at a time: the row distance
+    // and the off-map shade come from per-row tables, tile colours from FLOOR_PALETTE.
+    // On a disk-backed map the chunk under the last pixel is kept, as in traceChunks,
+    // so the store is only asked again when a pixel falls in another chunk.
+    private void castFloor(int from, int to) {
+        int chunkX = Integer.MIN_VALUE, chunkY = Integer.MIN_VALUE;
+        ChunkedTileStore.Chunk chunk = null;
+        int firstRow = screenHeight;
+        for (int i = from; i < to; i++) {
+            firstRow = Math.min(firstRow, wallBottom[i]);
+        }
+        for (int y = firstRow; y < screenHeight; y++) {
+            Texture tex = floorMips[floorLevel[y]];
+            int[] floorTexels = tex.texels;
+            byte[] floorIndices = tex.indices;
+            int floorW = tex.width, floorH = tex.height;
+            double rowDist = rowDistance[y];
+            int outside = outsideShade[y];
+            int rowStart = y * screenWidth;
+            for (int i = from; i < to; i++) {
+                if (wallBottom[i] > y) continue;
+                double fx = playerX + rayDirX[i] * rowDist;
+                double fy = playerY + rayDirY[i] * rowDist;
                 int cx = (int)fx, cy = (int)fy;
-                Color floorColor;
+                int color;
 
                 if (cx >= 0 && cx < mapWidth && cy >= 0 && cy < mapHeight) {
-                    char t = map[cy][cx];
-                    if (t == 'T') {
-                        floorColor = new Color(0, 0, 255);
-                    } else if (t == 'E') {
-                        floorColor = new Color(255, 0, 0);
-                    } else if (t == 'R') {
-                        floorColor = new Color(255, 0, 255);
-                    } else if (t == 'V') {
-                        floorColor = Color.BLACK;
-                    } else if (t == 'W') { // Win point
-                        floorColor = new Color(255, 255, 0);
+                    int t;
+                    if (tiles != null) {
+                        t = tiles[(cy + 1) * stride + cx + 1] & 0xFF;
                     } else {
-                        // Default textured floor
-                        int tx = Math.min(floorTexture.getWidth() - 1, Math.max(0, (int)((fx - cx) * floorTexture.getWidth())));
-                        int ty = Math.min(floorTexture.getHeight() - 1, Math.max(0, (int)((fy - cy) * floorTexture.getHeight())));
-                        floorColor = new Color(floorTexture.getRGB(tx, ty));
+                        int ccx = cx >> ChunkedTileStore.CHUNK_SHIFT, ccy = cy >> ChunkedTileStore.CHUNK_SHIFT;
+                        if (ccx != chunkX || ccy != chunkY) {
+                            chunk = store.chunk(ccx, ccy);
+                            chunkX = ccx;
+                            chunkY = ccy;
+                        }
+                        int lx = cx & (ChunkedTileStore.CHUNK - 1), ly = cy & (ChunkedTileStore.CHUNK - 1);
+                        t = chunk.tiles[ly << ChunkedTileStore.CHUNK_SHIFT | lx] & 0xFF;
+                    }
+                    color = t < FLOOR_PALETTE.length ? FLOOR_PALETTE[t] : FLOOR_TEXTURED;
+                    if (color == FLOOR_TEXTURED) {
+                        int tx = Math.min(floorW - 1, Math.max(0, (int)((fx - cx) * floorW)));
+                        int ty = Math.min(floorH - 1, Math.max(0, (int)((fy - cy) * floorH)));
+                        color = floorIndices != null
+                              ? palette.colors[floorIndices[tx * floorH + ty] & 0xFF]
+                              : floorTexels[tx * floorH + ty];
                     }
-
                 } else {
-                    int shade = Math.max(0, Math.min(255,
-                            (int)(1 + 205.0 * (y - skyH) / skyH)));
-                    floorColor = new Color(shade, shade, shade);
+                    color = outside;
                 }
 
-                int colF = floorColor.getRGB();
-                for (int rx = 0; rx < rayResolution; rx++) {
-                    int px = x + rx;
-                    if (px < screenWidth) {
-                        pixels[y * screenWidth + px] = colF;
-                    }
+                int x = i * rayResolution;
+                int xEnd = Math.min(screenWidth, x + rayResolution);
+                for (int px = x; px < xEnd; px++) {
+                    pixels[rowStart + px] = color;
                 }
             }
         }
+    }
 
-        g2d.dispose();
-        return image;
+    private static synchronized ForkJoinPool renderPool(int threads) {
+        if (renderPool == null || renderPool.getParallelism() != threads) {
+            if (renderPool != null) renderPool.shutdown();
+            renderPool = new ForkJoinPool(threads);
+        }
+        return renderPool;
     }
 
     // Update player position & angle
@@ -251,6 +685,16 @@ public class Raycaster {
         this.playerAngle = angle;
     }
 
+    /** Number of worker threads for column strips; 1 renders on the calling thread. */
+    public void setRenderThreads(int threads) {
+        this.renderThreads = Math.max(1, threads);
+    }
+
+    /** Receives sky, wall and floor pass timings; null to skip timing. */
+    public void setMetrics(FrameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     // Recompute offset arrays when FOV or resolution change
     public void updateSettings(int fov, int rayResolution) {
         if (fov != prevFov || rayResolution != prevRes || offsetCos == null) {
@@ -261,6 +705,21 @@ public class Raycaster {
             int count = (screenWidth + rayResolution - 1) / rayResolution;
             offsetCos = new double[count];
             offsetSin = new double[count];
+            rayDirX = new double[count];
+            rayDirY = new double[count];
+            wallTop = new int[count];
+            wallBottom = new int[count];
+            hitCellX = new int[count];
+            hitCellY = new int[count];
+            prevCellX = new int[count];
+            prevCellY = new int[count];
+            hitSide = new byte[count];
+            prevSide = new byte[count];
+            hitTex = new byte[count];
+            prevTex = new byte[count];
+            hitDist = new double[count];
+            hitWallX = new double[count];
+            prevValid = false;
             double radFov = Math.toRadians(fov), half = radFov / 2;
             for (int i = 0; i < count; i++) {
                 int px = i * rayResolution;
@@ -268,6 +727,20 @@ public class Raycaster {
                 offsetCos[i] = Math.cos(offset);
                 offsetSin[i] = Math.sin(offset);
             }
+
+            // Floor mip level per row: the larger of the world distance between two
+            // neighbouring ray samples and between this row and the next, in texels
+            floorLevel = new int[screenHeight];
+            double raySpacing = radFov * rayResolution / screenWidth;
+            int floorW = floorMips != null ? floorMips[0].width : 1;
+            int levels = floorMips != null ? floorMips.length : 1;
+            for (int y = 0; y < screenHeight; y++) {
+                double d = rowDistance[y];
+                if (d <= 0) continue;
+                double depth = y + 1 < screenHeight ? Math.abs(d - rowDistance[y + 1]) : 0;
+                double footprint = Math.max(d * raySpacing, depth);
+                floorLevel[y] = mipLevel(footprint * floorW, 1, levels);
+            }
         }
     }
 }
@@ -1,5 +1,7 @@
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.lang.reflect.Field;
 
 public class RaycasterTest {
@@ -48,4 +50,85 @@ public class RaycasterTest {
         assertEquals(3.5, yField.getDouble(rc), 1e-9);
         assertEquals(Math.PI / 4, angleField.getDouble(rc), 1e-9);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParallelStripsMatchSingleThreaded() {
+        char[][] map = borderedMap(8);
+        map[3][4] = '1';
+        map[5][2] = 'T';
+        map[2][5] = 'E';
+
+        Raycaster single = new Raycaster(map, 8, 8, 2.3, 2.7, 0.4, 320, 200, 60, 1);
+        Raycaster multi  = new Raycaster(map, 8, 8, 2.3, 2.7, 0.4, 320, 200, 60, 1);
+        multi.setRenderThreads(4);
+
+        int[] expected = pixelsOf(single.castRays());
+        int[] actual   = pixelsOf(multi.castRays());
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testRayHitsLieOnWalls() {
+        char[][] map = borderedMap(8);
+        Raycaster rc = new Raycaster(map, 8, 8, 3.5, 3.5, 0, 320, 200, 60, 1);
+        BufferedImage target = new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB);
+        RayHits hits = new RayHits();
+        rc.castRays(target, hits);
+
+        assertEquals(320, hits.getCount());
+        assertEquals(3.5, hits.getOriginX());
+        // Centre ray looks straight along +x into the east wall's face at x = 7
+        assertEquals(7.0, hits.getHitX(160), 1e-9);
+        assertEquals(3.5, hits.getDistance(160), 1e-9);
+        for (int i = 0; i < hits.getCount(); i++) {
+            double dx = hits.getHitX(i) - 3.5, dy = hits.getHitY(i) - 3.5;
+            assertEquals(hits.getDistance(i), Math.hypot(dx, dy), 1e-9);
+        }
+    }
+
+    @Test
+    void testEveryWallCodeStopsRays() {
+        for (char wall : Tiles.WALL_CODES) {
+            char[][] map = borderedMap(8);
+            map[3][5] = wall;
+            Raycaster rc = new Raycaster(map, 8, 8, 3.5, 3.5, 0, 320, 200, 60, 1);
+            RayHits hits = new RayHits();
+            rc.castRays(new BufferedImage(320, 200, BufferedImage.TYPE_INT_RGB), hits);
+            assertEquals(5.0, hits.getHitX(160), 1e-9, "wall code " + wall);
+        }
+    }
+
+    @Test
+    void testInterleavedFramesMatchFullFrames() {
+        char[][] map = borderedMap(12);
+        for (int y = 3; y < 11; y += 3) {
+            for (int x = 4; x < 11; x += 4) map[y][x] = '1';
+        }
+        Raycaster full = new Raycaster(map, 12, 12, 5.5, 5.5, 0, 320, 200, 60, 1);
+        Raycaster interleaved = new Raycaster(map, 12, 12, 5.5, 5.5, 0, 320, 200, 60, 1);
+        interleaved.setInterleaved(true);
+
+        // Turning and walking: reprojected columns must land exactly where a trace would
+        for (int f = 0; f < 40; f++) {
+            double angle = f * 0.02, x = 5.5 + f * 0.01, y = 5.5 - f * 0.005;
+            full.updatePlayer(x, y, angle);
+            interleaved.updatePlayer(x, y, angle);
+            assertArrayEquals(pixelsOf(full.castRays()), pixelsOf(interleaved.castRays()), "frame " + f);
+        }
+    }
+
+    // size x size, a border of '1' walls around open '0' floor
+    private static char[][] borderedMap(int size) {
+        char[][] map = new char[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                map[y][x] = x == 0 || y == 0 || x == size - 1 || y == size - 1 ? '1' : '0';
+            }
+        }
+        return map;
+    }
+
+    private static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData().clone();
+    }
+}
@@ -0,0 +1,20 @@
+import java.awt.image.BufferedImage;
+
+/** A raycast image together with the camera it was rendered from and where its rays hit. */
+public class RenderFrame {
+    private BufferedImage image;
+    private CameraSnapshot camera;
+    private final RayHits hits = new RayHits();
+
+    /** Reuses the image when the size is unchanged; only the owning thread may call this. */
+    public void prepare(int width, int height, CameraSnapshot camera) {
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        this.camera = camera;
+    }
+
+    public BufferedImage getImage()    { return image; }
+    public CameraSnapshot getCamera()  { return camera; }
+    public RayHits getHits()           { return hits; }
+}
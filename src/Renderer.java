@@ -1,36 +1,52 @@
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 
 public class Renderer {
-    private Game game;
     private Map map;
-    private Player player;
+    private FrameMetrics metrics;
     private Raycaster raycaster;
     private int lastWidth = 0, lastHeight = 0;
+    private boolean closed = false;
 
-    public Renderer(Game game, Map map, Player player) {
-        this.game = game;
+    public Renderer(Map map, FrameMetrics metrics) {
         this.map = map;
-        this.player = player;
+        this.metrics = metrics;
     }
 
-    public void render(Graphics g) {
-        // Ensure raycaster is created after canvas is laid out and size is non-zero
-        int w = game.getWidth();
-        int h = game.getHeight();
+    /**
+     * Raycasts the frame's camera into the frame's image. Called on the render thread
+     * only; after close() the frame is left as it is.
+     */
+    public synchronized void renderFrame(RenderFrame frame) {
+        if (closed) return;
+        CameraSnapshot cam = frame.getCamera();
+        BufferedImage image = frame.getImage();
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // Rebuild when the canvas size changes; per-row tables depend on it
         if (raycaster == null || w != lastWidth || h != lastHeight) {
+            // The new raycaster takes its texture handle before the old one lets go,
+            // so the textures are never briefly unreferenced
+            Raycaster old = raycaster;
             raycaster = new Raycaster(
-                    map.getMapLayout(), map.getWidth(), map.getHeight(),
-                    player.getX(), player.getY(), player.getAngle(),
-                    w, h, game.getFOV(), game.getRayResolution()
+                    map, cam.x, cam.y, cam.angle,
+                    w, h, cam.fov, cam.rayResolution
             );
+            raycaster.setMetrics(metrics);
+            if (old != null) old.close();
             lastWidth = w;
             lastHeight = h;
         }
-        // Update raycaster with latest player and settings
-        raycaster.updatePlayer(player.getX(), player.getY(), player.getAngle());
-        raycaster.updateSettings(game.getFOV(), game.getRayResolution());
-        BufferedImage image = raycaster.castRays();
-        g.drawImage(image, 0, 0, null);
+        // Update raycaster with the snapshot's player and settings
+        raycaster.updatePlayer(cam.x, cam.y, cam.angle);
+        raycaster.updateSettings(cam.fov, cam.rayResolution);
+        raycaster.setRenderThreads(cam.renderThreads);
+        raycaster.castRays(image, frame.getHits());
+    }
+
+    /** Releases the raycaster's textures. Waits for a frame that is being rendered. */
+    public synchronized void close() {
+        closed = true;
+        if (raycaster != null) raycaster.close();
+        raycaster = null;
     }
 }
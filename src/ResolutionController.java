@@ -0,0 +1,77 @@
+/**
+ * Holds render time under a frame budget by trading image quality for speed.
+ * Two knobs are used in turn: first the render scale (internal resolution as a
+ * percentage of the canvas, 100% down to 50% in 10% steps), then, once the
+ * scale is at its floor, extra ray stride on top of the user's wall
+ * resolution. Recovery undoes them in reverse order.
+ *
+ * Decisions use a smoothed render time with a gap between the shrink and grow
+ * thresholds, and a few frames are skipped after every change (the raycaster
+ * rebuilds its tables on a resize), so the resolution does not oscillate.
+ *
+ * Fed from the render thread once per frame; the knobs may be read anywhere.
+ */
+public class ResolutionController {
+    private static final int MIN_SCALE_PERCENT = 50;
+    private static final int SCALE_STEP = 10;
+    private static final int MAX_EXTRA_STRIDE = 3;
+    // Fractions of the budget: above SHRINK quality drops, below GROW it comes back
+    private static final double SHRINK_AT = 0.85;
+    private static final double GROW_AT = 0.55;
+    private static final int SETTLE_FRAMES = 15;
+    private static final double SMOOTHING = 0.1;
+
+    private volatile boolean enabled;
+    private volatile int scalePercent = 100;
+    private volatile int extraStride = 0;
+    private double averageNanos = -1;
+    private int settle = 0;
+
+    public ResolutionController(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /** Records one frame's render time against the budget and adjusts the knobs. */
+    public void update(long renderNanos, long budgetNanos) {
+        if (!enabled || budgetNanos <= 0) return;
+        if (settle > 0) {
+            settle--;
+            return;
+        }
+        averageNanos = averageNanos < 0 ? renderNanos
+                     : averageNanos + (renderNanos - averageNanos) * SMOOTHING;
+        if (averageNanos > budgetNanos * SHRINK_AT) {
+            if (scalePercent > MIN_SCALE_PERCENT) changed(scalePercent - SCALE_STEP, extraStride);
+            else if (extraStride < MAX_EXTRA_STRIDE) changed(scalePercent, extraStride + 1);
+        } else if (averageNanos < budgetNanos * GROW_AT) {
+            if (extraStride > 0) changed(scalePercent, extraStride - 1);
+            else if (scalePercent < 100) changed(scalePercent + SCALE_STEP, extraStride);
+        }
+    }
+
+    private void changed(int scale, int stride) {
+        scalePercent = scale;
+        extraStride = stride;
+        averageNanos = -1;
+        settle = SETTLE_FRAMES;
+    }
+
+    /** Internal render size for a canvas dimension. */
+    public int scaled(int canvasSize) {
+        return Math.max(1, canvasSize * scalePercent / 100);
+    }
+
+    public int getScalePercent() { return scalePercent; }
+    public int getExtraStride()  { return extraStride; }
+    public boolean isEnabled()   { return enabled; }
+
+    /** Turning the controller off goes straight back to full quality. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            scalePercent = 100;
+            extraStride = 0;
+        }
+        averageNanos = -1;
+    }
+}
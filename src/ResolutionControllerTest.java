@@ -0,0 +1,38 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolutionControllerTest {
+    private static final long BUDGET = 16_000_000L;
+
+    private static void feed(ResolutionController rc, long nanos, int frames) {
+        for (int i = 0; i < frames; i++) rc.update(nanos, BUDGET);
+    }
+
+    @Test
+    void testShrinksScaleBeforeStrideAndRecoversInReverse() {
+        ResolutionController rc = new ResolutionController(true);
+        feed(rc, BUDGET * 2, 1000);
+        assertEquals(50, rc.getScalePercent());
+        assertEquals(3, rc.getExtraStride());
+
+        feed(rc, BUDGET / 4, 1000);
+        assertEquals(100, rc.getScalePercent());
+        assertEquals(0, rc.getExtraStride());
+    }
+
+    @Test
+    void testHoldsSteadyBetweenThresholds() {
+        ResolutionController rc = new ResolutionController(true);
+        feed(rc, BUDGET * 7 / 10, 1000);
+        assertEquals(100, rc.getScalePercent());
+        assertEquals(0, rc.getExtraStride());
+        assertEquals(640, rc.scaled(640));
+    }
+
+    @Test
+    void testDisabledKeepsFullQuality() {
+        ResolutionController rc = new ResolutionController(false);
+        feed(rc, BUDGET * 2, 1000);
+        assertEquals(100, rc.getScalePercent());
+    }
+}
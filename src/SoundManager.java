@@ -1,26 +1,34 @@
 import javax.sound.sampled.*;
-import java.io.File;
+import java.io.IOException;
 
 public class SoundManager {
+    public static final String BACKGROUND_MUSIC = "sounds/background-music2.wav";
+
+    private AssetManager.Handle<Clip> music;
     private Clip clip;
 
     public void playMusic(String filePath) {
+        stopMusic(); // Stop any currently playing music
+        // Usually already opened in the background by AssetLoader.start()
+        music = AssetLoader.acquireMusic(filePath);
         try {
-            stopMusic(); // Stop any currently playing music
-            File musicFile = new File(filePath);  // Load music file
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(musicFile);  // Get the audio stream
-            clip = AudioSystem.getClip();  // Get a clip to play the music
-            clip.open(audioStream);  // Open the clip with the audio stream
-            clip.loop(Clip.LOOP_CONTINUOUSLY);  // Loop the music indefinitely
-        } catch (Exception e) {
+            clip = music.get();
+        } catch (IOException e) {
             e.printStackTrace();  // Handle errors
+            return;
         }
+        if (!clip.isRunning()) clip.setFramePosition(0);
+        clip.loop(Clip.LOOP_CONTINUOUSLY);  // Loop the music indefinitely
     }
 
+    /** Stops the music and releases its clip to the asset manager. */
     public void stopMusic() {
         if (clip != null && clip.isRunning()) {
             clip.stop();  // Stop the music if it is playing
         }
+        if (music != null) music.close();
+        music = null;
+        clip = null;
     }
 
     
@@ -0,0 +1,71 @@
+import java.awt.image.BufferedImage;
+
+/**
+ * Raw texels of a texture, pulled out of the BufferedImage once at load time.
+ * Stored column-major (texels[x * height + y]) so a vertical wall slice walks
+ * contiguous memory instead of jumping a whole row per pixel.
+ *
+ * An indexed texture keeps one palette index byte per texel in {@code indices}
+ * instead, and {@code texels} is null.
+ */
+public class Texture {
+    public final int width;
+    public final int height;
+    public final int[] texels;
+    public final byte[] indices;
+
+    public Texture(int width, int height, int[] texels) {
+        this(width, height, texels, null);
+    }
+
+    private Texture(int width, int height, int[] texels, byte[] indices) {
+        this.width = width;
+        this.height = height;
+        this.texels = texels;
+        this.indices = indices;
+    }
+
+    public static Texture fromImage(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] rows = image.getRGB(0, 0, w, h, null, 0, w);
+        int[] columns = new int[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                columns[x * h + y] = rows[y * w + x] & 0xFFFFFF;
+            }
+        }
+        return new Texture(w, h, columns);
+    }
+
+    /** Quantized copy holding only palette indices (a quarter of the memory). */
+    public Texture toIndexed(Palette palette) {
+        return new Texture(width, height, null, palette.toIndices(texels));
+    }
+
+    /**
+     * Next mip level: half the size in each dimension (at least 1), each texel
+     * the average of the 2x2 block it covers. Only for RGB textures.
+     */
+    public Texture halfSize() {
+        int w = Math.max(1, width / 2), h = Math.max(1, height / 2);
+        int[] out = new int[w * h];
+        for (int x = 0; x < w; x++) {
+            int x0 = Math.min(width - 1, x * 2), x1 = Math.min(width - 1, x * 2 + 1);
+            for (int y = 0; y < h; y++) {
+                int y0 = Math.min(height - 1, y * 2), y1 = Math.min(height - 1, y * 2 + 1);
+                int a = texels[x0 * height + y0], b = texels[x0 * height + y1];
+                int c = texels[x1 * height + y0], d = texels[x1 * height + y1];
+                int r = (((a >> 16) & 0xFF) + ((b >> 16) & 0xFF) + ((c >> 16) & 0xFF) + ((d >> 16) & 0xFF) + 2) >> 2;
+                int g = (((a >> 8) & 0xFF) + ((b >> 8) & 0xFF) + ((c >> 8) & 0xFF) + ((d >> 8) & 0xFF) + 2) >> 2;
+                int bl = ((a & 0xFF) + (b & 0xFF) + (c & 0xFF) + (d & 0xFF) + 2) >> 2;
+                out[x * h + y] = (r << 16) | (g << 8) | bl;
+            }
+        }
+        return new Texture(w, h, out);
+    }
+
+    public boolean isIndexed() {
+        return indices != null;
+    }
+}
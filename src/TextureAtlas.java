@@ -0,0 +1,63 @@
+/**
+ * Several textures, each with its whole mip chain, packed back to back into a
+ * single texel array. A texture is addressed by its ID and a mip level through
+ * flat offset/size tables, so the wall loop picks a texture with index math
+ * alone: slot = id * MAX_LEVELS + level, then texels[offset[slot] + x * height[slot] + y].
+ *
+ * Levels are column-major like Texture. An indexed atlas holds palette indices
+ * in {@code indices} and {@code texels} is null.
+ */
+public class TextureAtlas {
+    /** Mip slots reserved per texture; enough for textures up to 32768 texels across. */
+    public static final int MAX_LEVELS = 16;
+
+    public final int[] texels;
+    public final byte[] indices;
+    public final int[] offset, width, height;
+    /** Number of mip levels of each texture. */
+    public final int[] levels;
+
+    private TextureAtlas(int[] texels, byte[] indices, int[] offset, int[] width, int[] height, int[] levels) {
+        this.texels = texels;
+        this.indices = indices;
+        this.offset = offset;
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+    }
+
+    /** Packs mip chains (level 0 first, RGB) in texture ID order. */
+    public static TextureAtlas pack(Texture[][] chains) {
+        int ids = chains.length, total = 0;
+        for (Texture[] chain : chains) {
+            if (chain.length > MAX_LEVELS) throw new IllegalArgumentException("Too many mip levels: " + chain.length);
+            for (Texture level : chain) total += level.width * level.height;
+        }
+        int[] texels = new int[total];
+        int[] offset = new int[ids * MAX_LEVELS], width = new int[ids * MAX_LEVELS], height = new int[ids * MAX_LEVELS];
+        int[] levels = new int[ids];
+        int at = 0;
+        for (int id = 0; id < ids; id++) {
+            levels[id] = chains[id].length;
+            for (int l = 0; l < chains[id].length; l++) {
+                Texture level = chains[id][l];
+                int slot = id * MAX_LEVELS + l;
+                offset[slot] = at;
+                width[slot] = level.width;
+                height[slot] = level.height;
+                System.arraycopy(level.texels, 0, texels, at, level.texels.length);
+                at += level.texels.length;
+            }
+        }
+        return new TextureAtlas(texels, null, offset, width, height, levels);
+    }
+
+    /** Quantized copy holding only palette indices. */
+    public TextureAtlas toIndexed(Palette palette) {
+        return new TextureAtlas(null, palette.toIndices(texels), offset, width, height, levels);
+    }
+
+    public int getTextureCount() {
+        return levels.length;
+    }
+}
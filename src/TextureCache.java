@@ -0,0 +1,238 @@
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * The renderer's textures, decoded, scaled and mip-mapped ahead of time into one
+ * raw binary file so that starting the game does not decode any JPEG.
+ *
+ * The file is keyed by a SHA-256 of the scale and every source image's bytes. If
+ * the key does not match (or the file is missing) the sources are decoded and the
+ * cache rewritten; otherwise it is memory-mapped and the texels copied straight
+ * out of the mapping. {@code java TextureCache} compiles it explicitly.
+ *
+ * Layout (little-endian): magic, version, 32-byte key, texture count, then per
+ * texture its level count and per level width, height and width * height texels.
+ * Walls and the floor are column-major like Texture; the sky is one row-major level.
+ */
+public class TextureCache {
+    public static final File SOURCE_DIR = new File("textures");
+    public static final File CACHE_FILE = new File(SOURCE_DIR, "textures.cache");
+    private static final String FLOOR_SOURCE = "floor.jpg";
+    private static final String SKY_SOURCE = "sky1.jpg";
+    private static final int MAGIC = 0x43585452; // "RTXC"
+    private static final int VERSION = 1;
+    private static final int KEY_BYTES = 32;
+
+    /** Mip chain of each wall texture, in Tiles texture ID order. */
+    public final Texture[][] walls;
+    public final Texture[] floor;
+    public final BufferedImage sky;
+
+    private TextureCache(Texture[][] walls, Texture[] floor, BufferedImage sky) {
+        this.walls = walls;
+        this.floor = floor;
+        this.sky = sky;
+    }
+
+    /** Loads from the cache file, compiling it first if it is missing or stale. */
+    public static TextureCache load(double scale) throws IOException {
+        byte[] key = sourceKey(scale);
+        TextureCache cached = read(CACHE_FILE, key);
+        if (cached != null) return cached;
+        System.out.println("Compiling texture cache: " + CACHE_FILE.getAbsolutePath());
+        TextureCache compiled = decode(scale);
+        write(CACHE_FILE, key, compiled);
+        return compiled;
+    }
+
+    // Source images in file order: walls, floor, sky
+    private static List<String> sources() {
+        List<String> names = new ArrayList<>(Arrays.asList(Tiles.WALL_TEXTURES));
+        names.add(FLOOR_SOURCE);
+        names.add(SKY_SOURCE);
+        return names;
+    }
+
+    private static byte[] sourceKey(double scale) throws IOException {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(ByteBuffer.allocate(12).putInt(VERSION).putDouble(scale).array());
+            for (String name : sources()) {
+                sha.update(name.getBytes(StandardCharsets.UTF_8));
+                sha.update(Files.readAllBytes(new File(SOURCE_DIR, name).toPath()));
+            }
+            return sha.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+
+    // The slow path: decode every JPEG and build the mip chains
+    private static TextureCache decode(double scale) throws IOException {
+        Texture[][] walls = new Texture[Tiles.WALL_TEXTURES.length][];
+        for (int id = 0; id < walls.length; id++) {
+            walls[id] = mipChain(Texture.fromImage(scale(readImage(Tiles.WALL_TEXTURES[id]), scale)));
+        }
+        Texture[] floor = mipChain(Texture.fromImage(scale(readImage(FLOOR_SOURCE), scale)));
+        BufferedImage rawSky = readImage(SKY_SOURCE);
+        BufferedImage sky = new BufferedImage(rawSky.getWidth(), rawSky.getHeight(), BufferedImage.TYPE_INT_RGB);
+        sky.getGraphics().drawImage(rawSky, 0, 0, null);
+        return new TextureCache(walls, floor, sky);
+    }
+
+    private static BufferedImage readImage(String name) throws IOException {
+        File file = new File(SOURCE_DIR, name);
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) throw new IOException("Not an image: " + file);
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage orig, double scale) {
+        if (scale == 1.0) return orig;
+        int w = (int) (orig.getWidth() * scale);
+        int h = (int) (orig.getHeight() * scale);
+        BufferedImage buff = new BufferedImage(w, h, orig.getType());
+        AffineTransform at = AffineTransform.getScaleInstance(scale, scale);
+        AffineTransformOp op = new AffineTransformOp(at, AffineTransformOp.TYPE_BILINEAR);
+        return op.filter(orig, buff);
+    }
+
+    // Box-filtered levels down to 1x1, level 0 being the texture itself
+    static Texture[] mipChain(Texture base) {
+        List<Texture> levels = new ArrayList<>();
+        levels.add(base);
+        Texture level = base;
+        while (level.width > 1 || level.height > 1) {
+            level = level.halfSize();
+            levels.add(level);
+        }
+        return levels.toArray(new Texture[0]);
+    }
+
+    // Null if the file is missing, truncated or built from other sources
+    private static TextureCache read(File file, byte[] key) throws IOException {
+        if (!file.isFile()) return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < 12 + KEY_BYTES
+                    || mapped.getInt() != MAGIC || mapped.getInt() != VERSION) return null;
+            byte[] stored = new byte[KEY_BYTES];
+            mapped.get(stored);
+            if (!Arrays.equals(stored, key)) return null;
+
+            // Texels are copied with bulk gets through an int view of the mapping
+            IntBuffer ints = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int count = ints.get();
+            if (count != Tiles.WALL_TEXTURES.length + 2) return null;
+            Texture[][] walls = new Texture[count - 2][];
+            for (int id = 0; id < walls.length; id++) {
+                if ((walls[id] = readChain(ints)) == null) return null;
+            }
+            Texture[] floor = readChain(ints);
+            if (floor == null) return null;
+            // The sky is a single level, read straight into the image's raster
+            if (ints.get() != 1) return null;
+            int skyW = ints.get(), skyH = ints.get();
+            if (!fits(ints, skyW, skyH)) return null;
+            BufferedImage sky = new BufferedImage(skyW, skyH, BufferedImage.TYPE_INT_RGB);
+            ints.get(((DataBufferInt) sky.getRaster().getDataBuffer()).getData());
+            return new TextureCache(walls, floor, sky);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException
+                 | ArithmeticException e) {
+            System.err.println("Ignoring corrupt texture cache " + file + ": " + e);
+            return null;
+        }
+    }
+
+    // Null if a count or size in the chain is more than the file holds
+    private static Texture[] readChain(IntBuffer ints) {
+        int count = ints.get();
+        // Every level takes at least its width and height
+        if (count <= 0 || count > ints.remaining() / 2) return null;
+        Texture[] levels = new Texture[count];
+        for (int l = 0; l < levels.length; l++) {
+            int w = ints.get(), h = ints.get();
+            if (!fits(ints, w, h)) return null;
+            int[] texels = new int[w * h];
+            ints.get(texels);
+            levels[l] = new Texture(w, h, texels);
+        }
+        return levels;
+    }
+
+    // Sizes read from the file are checked before anything is allocated from them
+    private static boolean fits(IntBuffer ints, int w, int h) {
+        return w > 0 && h > 0 && (long) w * h <= ints.remaining();
+    }
+
+    // Written to a temporary file and moved over the old cache, so a concurrent
+    // or interrupted run never sees half a file
+    private static void write(File file, byte[] key, TextureCache textures) throws IOException {
+        BufferedImage skyImage = textures.sky;
+        int skyW = skyImage.getWidth(), skyH = skyImage.getHeight();
+        Texture sky = new Texture(skyW, skyH, skyImage.getRGB(0, 0, skyW, skyH, null, 0, skyW));
+        List<Texture[]> chains = new ArrayList<>(Arrays.asList(textures.walls));
+        chains.add(textures.floor);
+        chains.add(new Texture[]{sky});
+
+        long size = 12 + KEY_BYTES + 4;
+        for (Texture[] chain : chains) {
+            size += 4;
+            for (Texture level : chain) size += 8 + 4L * level.texels.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(size)).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).put(key).putInt(chains.size());
+        for (Texture[] chain : chains) {
+            out.putInt(chain.length);
+            for (Texture level : chain) {
+                out.putInt(level.width).putInt(level.height);
+                int[] texels = level.texels;
+                for (int texel : texels) out.putInt(texel & 0xFFFFFF);
+            }
+        }
+        out.flip();
+
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "textures", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) channel.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Asset compile step: rebuilds the cache file from the source images. */
+    public static void main(String[] args) throws IOException {
+        double scale = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        long start = System.nanoTime();
+        TextureCache textures = decode(scale);
+        write(CACHE_FILE, sourceKey(scale), textures);
+        System.out.printf("Wrote %s (%d KB) in %d ms%n", CACHE_FILE,
+                CACHE_FILE.length() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+}
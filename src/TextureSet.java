@@ -0,0 +1,50 @@
+import java.awt.image.BufferedImage;
+
+/**
+ * Everything the raycaster samples, ready for its loops: the wall atlas, the
+ * floor mip chain and the sky image, plus the palette and colormap in indexed
+ * mode. Built from a TextureCache and shared between raycasters through the
+ * AssetManager.
+ */
+public class TextureSet {
+    public final TextureAtlas walls;
+    public final Texture[] floorMips;
+    public final BufferedImage sky;
+    // Null unless indexed
+    public final Palette palette;
+    public final int[] colormap;
+
+    public TextureSet(TextureCache textures, boolean indexed, int lightLevels) {
+        TextureAtlas atlas = TextureAtlas.pack(textures.walls);
+        Texture[] floor = textures.floor;
+        if (indexed) {
+            int wallCount = textures.walls.length;
+            int[][] sources = new int[wallCount + 1][];
+            for (int id = 0; id < wallCount; id++) sources[id] = textures.walls[id][0].texels;
+            sources[wallCount] = floor[0].texels;
+            palette = Palette.quantize(sources);
+            colormap = palette.colormap(lightLevels);
+            atlas = atlas.toIndexed(palette);
+            Texture[] indexedFloor = new Texture[floor.length];
+            for (int i = 0; i < floor.length; i++) indexedFloor[i] = floor[i].toIndexed(palette);
+            floor = indexedFloor;
+        } else {
+            palette = null;
+            colormap = null;
+        }
+        walls = atlas;
+        floorMips = floor;
+        sky = textures.sky;
+    }
+
+    /** Resident size: texels or palette indices, the sky pixels and the colormap. */
+    public long getBytes() {
+        long bytes = walls.texels != null ? 4L * walls.texels.length : walls.indices.length;
+        for (Texture level : floorMips) {
+            bytes += level.texels != null ? 4L * level.texels.length : level.indices.length;
+        }
+        bytes += 4L * sky.getWidth() * sky.getHeight();
+        if (colormap != null) bytes += 4L * colormap.length;
+        return bytes;
+    }
+}
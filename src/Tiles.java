@@ -0,0 +1,48 @@
+import java.util.Arrays;
+
+/**
+ * Tile codes of level files and Map layouts, and which wall texture each wall
+ * code uses. '1' is the original wall; '2'..'5' are walls with other textures.
+ * Codes are ASCII, so a Map stores each as one byte.
+ */
+public final class Tiles {
+    public static final char EMPTY = '0';
+    public static final char WALL = '1';
+    /** Player start in level files; replaced by EMPTY when loaded. */
+    public static final char PLAYER = 'P';
+    /** Spawn marker the editor paints while a level is being made. */
+    public static final char SPAWN = 'S';
+    public static final char FOV_TRAP = 'T';
+    public static final char EXIT = 'E';
+    public static final char VOID_TRAP = 'V';
+    public static final char WIN = 'W';
+    /** Floor drawn magenta; no effect on play. */
+    public static final char MARKED_FLOOR = 'R';
+
+    /** Wall codes in texture ID order, with the texture file each one uses. */
+    public static final char[] WALL_CODES = {'1', '2', '3', '4', '5'};
+    public static final String[] WALL_TEXTURES = {
+        "brick3.jpg", "brick.jpg", "brick2.jpg", "b2.jpg", "brick4200x.jpg"
+    };
+
+    // Wall texture ID per tile code, NOT_WALL for everything else
+    static final byte NOT_WALL = -1;
+    static final byte[] TEXTURE_ID = new byte[128];
+    static {
+        Arrays.fill(TEXTURE_ID, NOT_WALL);
+        for (int id = 0; id < WALL_CODES.length; id++) {
+            TEXTURE_ID[WALL_CODES[id]] = (byte) id;
+        }
+    }
+
+    private Tiles() {}
+
+    public static boolean isWall(char tile) {
+        return tile < TEXTURE_ID.length && TEXTURE_ID[tile] != NOT_WALL;
+    }
+
+    /** Wall texture ID of a tile, or -1 if it is not a wall. */
+    public static int textureId(char tile) {
+        return tile < TEXTURE_ID.length ? TEXTURE_ID[tile] : NOT_WALL;
+    }
+}